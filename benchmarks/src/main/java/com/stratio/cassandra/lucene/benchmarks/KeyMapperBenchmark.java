@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.service.ClusteringKeyMapper;
+import com.stratio.cassandra.lucene.service.FullKeyMapper;
+import com.stratio.cassandra.lucene.service.PartitionKeyMapper;
+import com.stratio.cassandra.lucene.service.TokenMapper;
+import com.stratio.cassandra.lucene.util.OrderPreservingBytes;
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.db.DecoratedKey;
+import org.apache.cassandra.db.composites.CellName;
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the mapping of the primary key of a CQL3 row to Lucene fields by the token, partition key, clustering key
+ * and full key mappers, as well as the order-preserving encoding of clustering keys.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyMapperBenchmark {
+
+    /** The number of pregenerated keys. */
+    private static final int NUM_KEYS = 1024;
+
+    private TokenMapper tokenMapper;
+    private PartitionKeyMapper partitionKeyMapper;
+    private ClusteringKeyMapper clusteringKeyMapper;
+    private FullKeyMapper fullKeyMapper;
+    private List<AbstractType<?>> clusteringTypes;
+    private DecoratedKey[] partitionKeys;
+    private CellName[] clusteringKeys;
+    private List<List<ByteBuffer>> clusteringComponents;
+    private int index;
+
+    @Setup
+    public void setup() {
+        SyntheticTable table = new SyntheticTable(true, 0, 0);
+        CFMetaData metadata = table.getMetadata();
+        tokenMapper = TokenMapper.instance();
+        partitionKeyMapper = PartitionKeyMapper.instance(metadata);
+        clusteringKeyMapper = ClusteringKeyMapper.instance(metadata);
+        fullKeyMapper = FullKeyMapper.instance(partitionKeyMapper, clusteringKeyMapper);
+        clusteringTypes = new ArrayList<>();
+        for (int i = 0; i < metadata.comparator.clusteringPrefixSize(); i++) {
+            clusteringTypes.add(metadata.comparator.subtype(i));
+        }
+        partitionKeys = new DecoratedKey[NUM_KEYS];
+        clusteringKeys = new CellName[NUM_KEYS];
+        clusteringComponents = new ArrayList<>(NUM_KEYS);
+        for (int i = 0; i < NUM_KEYS; i++) {
+            partitionKeys[i] = table.partitionKey(i);
+            clusteringKeys[i] = clusteringKeyMapper.clusteringKey(table.row(i));
+            List<ByteBuffer> components = new ArrayList<>();
+            for (int j = 0; j < clusteringTypes.size(); j++) {
+                components.add(clusteringKeys[i].get(j));
+            }
+            clusteringComponents.add(components);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) % NUM_KEYS;
+        return index;
+    }
+
+    @Benchmark
+    public Document token() {
+        Document document = new Document();
+        tokenMapper.addFields(document, partitionKeys[next()]);
+        return document;
+    }
+
+    @Benchmark
+    public Document partitionKey() {
+        Document document = new Document();
+        partitionKeyMapper.addFields(document, partitionKeys[next()]);
+        return document;
+    }
+
+    @Benchmark
+    public Document clusteringKey() {
+        Document document = new Document();
+        clusteringKeyMapper.addFields(document, clusteringKeys[next()]);
+        return document;
+    }
+
+    @Benchmark
+    public Document fullKey() {
+        int i = next();
+        Document document = new Document();
+        fullKeyMapper.addFields(document, partitionKeys[i], clusteringKeys[i]);
+        return document;
+    }
+
+    @Benchmark
+    public BytesRef orderPreservingEncoding() {
+        return OrderPreservingBytes.encode(clusteringTypes, clusteringComponents.get(next()));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.schema.Columns;
+import com.stratio.cassandra.lucene.service.RowMapper;
+import org.apache.cassandra.db.Row;
+import org.apache.lucene.document.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the building of the Lucene {@link Document}s of CQL3 rows by {@link RowMapper}s, which is done for every
+ * indexed row.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    /** The number of pregenerated rows. */
+    private static final int NUM_ROWS = 1024;
+
+    @Param({"skinny", "wide"})
+    public String layout;
+
+    @Param({"4", "16", "64"})
+    public int width;
+
+    @Param({"0", "10", "100"})
+    public int collectionSize;
+
+    private RowMapper rowMapper;
+    private Row[] rows;
+    private int index;
+
+    @Setup
+    public void setup() {
+        SyntheticTable table = new SyntheticTable(layout.equals("wide"), width, collectionSize);
+        rowMapper = table.getRowMapper();
+        rows = new Row[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = table.row(i);
+        }
+    }
+
+    private Row nextRow() {
+        index = (index + 1) % NUM_ROWS;
+        return rows[index];
+    }
+
+    @Benchmark
+    public Document document() {
+        return rowMapper.document(nextRow());
+    }
+
+    @Benchmark
+    public Columns columns() {
+        return rowMapper.columns(nextRow());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.schema.Columns;
+import com.stratio.cassandra.lucene.schema.Schema;
+import org.apache.lucene.document.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the addition of the mapped columns of a row to a Lucene {@link Document} by {@link Schema#addFields},
+ * isolated from the row decomposition and the key mappings.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+
+    /** The number of pregenerated rows. */
+    private static final int NUM_ROWS = 1024;
+
+    @Param({"4", "16", "64"})
+    public int width;
+
+    @Param({"0", "10", "100"})
+    public int collectionSize;
+
+    private Schema schema;
+    private Columns[] columns;
+    private int index;
+
+    @Setup
+    public void setup() {
+        SyntheticTable table = new SyntheticTable(false, width, collectionSize);
+        schema = table.getSchema();
+        columns = new Columns[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            columns[i] = table.getRowMapper().columns(table.row(i));
+        }
+    }
+
+    @Benchmark
+    public Document addFields() {
+        index = (index + 1) % NUM_ROWS;
+        Document document = new Document();
+        schema.addFields(document, columns[index]);
+        return document;
+    }
+}
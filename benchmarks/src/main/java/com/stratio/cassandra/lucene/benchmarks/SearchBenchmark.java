@@ -0,0 +1,276 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.IndexConfig;
+import com.stratio.cassandra.lucene.query.Search;
+import com.stratio.cassandra.lucene.query.builder.ConditionBuilder;
+import com.stratio.cassandra.lucene.query.builder.ContainsConditionBuilder;
+import com.stratio.cassandra.lucene.query.builder.SearchBuilder;
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.service.CompiledSearch;
+import com.stratio.cassandra.lucene.service.LuceneIndex;
+import com.stratio.cassandra.lucene.service.RowMapper;
+import com.stratio.cassandra.lucene.service.SearchResult;
+import com.stratio.cassandra.lucene.service.TokenMapper;
+import org.apache.cassandra.db.DecoratedKey;
+import org.apache.cassandra.dht.LongToken;
+import org.apache.cassandra.dht.Token;
+import org.apache.lucene.search.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.stratio.cassandra.lucene.benchmarks.SearchableTable.DAY;
+import static com.stratio.cassandra.lucene.benchmarks.SearchableTable.EPOCH;
+import static com.stratio.cassandra.lucene.benchmarks.SearchableTable.name;
+import static com.stratio.cassandra.lucene.benchmarks.SearchableTable.word;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.biTemporalSearch;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.bool;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.dateRange;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.fuzzy;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.geoBBox;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.geoDistance;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.lucene;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.match;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.matchAll;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.phrase;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.prefix;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.range;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.regexp;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.search;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.sortField;
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.wildcard;
+
+/**
+ * Benchmarks the throughput and latency of {@link LuceneIndex} searches over an in-process index loaded with
+ * synthetic documents built by the real mappers of a {@link SearchableTable}.
+ * <p/>
+ * Each search condition is run as a filter in the natural index order, which allows early termination, as a query
+ * sorted by relevance, as a filter sorted by a field, and as a filter restricted to a quarter of the token range. The
+ * index can be loaded with any number of documents, merged down to a max number of segments, and have a ratio of its
+ * documents deleted, so that the effect of merge policies and query changes can be measured. Loading the index takes
+ * most of the run time, so the parameters should be narrowed with the JMH {@code -p} option.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"1000000"})
+    public int numDocs;
+
+    @Param({"1", "10"})
+    public int segments;
+
+    @Param({"0.0", "0.2"})
+    public double deletedRatio;
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    @Param({"all",
+            "match",
+            "range",
+            "prefix",
+            "wildcard",
+            "regexp",
+            "fuzzy",
+            "phrase",
+            "contains",
+            "boolean",
+            "lucene",
+            "geo_bbox",
+            "geo_distance",
+            "date_range",
+            "bitemporal"})
+    public String condition;
+
+    private Path path;
+    private LuceneIndex index;
+    private RowMapper rowMapper;
+    private CompiledSearch naturalSearch;
+    private CompiledSearch relevanceSearch;
+    private CompiledSearch sortedSearch;
+    private Query tokenRangeQuery;
+    private BitSet tokenRangeShards;
+
+    @Setup
+    public void setup() throws IOException {
+        SearchableTable table = new SearchableTable();
+        Schema schema = table.getSchema();
+        rowMapper = table.getRowMapper();
+
+        // Load the index flushing a segment for each part of the documents
+        path = Files.createTempDirectory("benchmarks");
+        index = new LuceneIndex("benchmarks",
+                                "t",
+                                "idx",
+                                path,
+                                IndexConfig.DEFAULT_DIRECTORY_TYPE,
+                                IndexConfig.DEFAULT_MIN_REFRESH_SECONDS,
+                                IndexConfig.DEFAULT_REFRESH_SECONDS,
+                                IndexConfig.DEFAULT_RAM_BUFFER_MB,
+                                IndexConfig.DEFAULT_MAX_MERGE_MB,
+                                IndexConfig.DEFAULT_MAX_CACHED_MB,
+                                IndexConfig.DEFAULT_SEARCH_CACHE_SIZE,
+                                0, // Don't cache results, so each search hits Lucene
+                                0, // Nor filter matches
+                                IndexConfig.DEFAULT_SEARCH_THREADS,
+                                IndexConfig.DEFAULT_MIN_SLICE_DOCS,
+                                IndexConfig.DEFAULT_SHARDS,
+                                schema.getAnalyzer());
+        index.init(rowMapper.sort());
+        int docsPerSegment = Math.max(1, numDocs / segments);
+        for (int i = 0; i < numDocs; i++) {
+            DecoratedKey partitionKey = table.partitionKey(i);
+            index.upsert(rowMapper.term(partitionKey), rowMapper.document(table.row(i)));
+            if ((i + 1) % docsPerSegment == 0) {
+                index.commit();
+            }
+        }
+        index.commit();
+        index.forceMerge(segments, true);
+
+        // Delete the requested ratio of documents, keeping them in the merged segments
+        Random random = new Random(0);
+        for (int i = 0; i < numDocs; i++) {
+            if (random.nextDouble() < deletedRatio) {
+                index.delete(rowMapper.term(table.partitionKey(i)));
+            }
+        }
+        index.commit();
+        index.refresh();
+
+        // Compile the searches
+        ConditionBuilder<?, ?> conditionBuilder = condition();
+        naturalSearch = compile(search().filter(conditionBuilder), schema);
+        relevanceSearch = compile(search().query(conditionBuilder), schema);
+        sortedSearch = compile(search().filter(conditionBuilder).sort(sortField("number")), schema);
+
+        // Build the token range restriction, covering a quarter of the ring
+        TokenMapper tokenMapper = TokenMapper.instance();
+        Token lower = new LongToken(Long.MIN_VALUE / 2);
+        Token upper = new LongToken(0L);
+        tokenRangeQuery = tokenMapper.query(lower, upper, true, false);
+        tokenRangeShards = tokenMapper.shards(lower, upper, index.getNumShards());
+    }
+
+    private ConditionBuilder<?, ?> condition() {
+        switch (condition) {
+            case "all":
+                return matchAll();
+            case "match":
+                return match("name", name(42));
+            case "range":
+                return range("number").lower(0).upper(SearchableTable.MAX_NUMBER / 10);
+            case "prefix":
+                return prefix("name", name(1));
+            case "wildcard":
+                return wildcard("name", "name1*2");
+            case "regexp":
+                return regexp("name", "name[1-3][0-9]");
+            case "fuzzy":
+                return fuzzy("body", word(42));
+            case "phrase":
+                return phrase("body", word(1) + " " + word(2)).slop(10);
+            case "contains":
+                return new ContainsConditionBuilder("name", name(1), name(2), name(3), name(4), name(5));
+            case "boolean":
+                return bool().must(match("body", word(1)), range("number").lower(0).upper(500000))
+                             .not(match("name", name(1)));
+            case "lucene":
+                return lucene("body:" + word(1) + " AND body:" + word(2));
+            case "geo_bbox":
+                return geoBBox("place", -10, 10, -10, 10);
+            case "geo_distance":
+                return geoDistance("place", 0, 0, "1000km");
+            case "date_range":
+                return dateRange("duration").setStart(EPOCH).setStop(EPOCH + 30 * DAY).setOperation("intersects");
+            case "bitemporal":
+                return biTemporalSearch("bitemporal").setVt_from(EPOCH)
+                                                     .setVt_to(EPOCH + 365 * DAY)
+                                                     .setTt_from(EPOCH)
+                                                     .setTt_to(EPOCH + 365 * DAY)
+                                                     .setOperation("intersects");
+            default:
+                throw new IllegalArgumentException("Unknown condition " + condition);
+        }
+    }
+
+    private static CompiledSearch compile(SearchBuilder searchBuilder, Schema schema) {
+        Search search = searchBuilder.build();
+        search.validate(schema);
+        return new CompiledSearch(searchBuilder.toJson(), search, schema);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.delete();
+    }
+
+    private List<SearchResult> execute(CompiledSearch search, Query rangeQuery, BitSet shards) throws IOException {
+        return index.search(search.query(rangeQuery),
+                            search.sort(),
+                            null,
+                            pageSize,
+                            search.usesRelevance(),
+                            rowMapper,
+                            shards);
+    }
+
+    @Benchmark
+    public List<SearchResult> natural() throws IOException {
+        return execute(naturalSearch, null, null);
+    }
+
+    @Benchmark
+    public List<SearchResult> relevance() throws IOException {
+        return execute(relevanceSearch, null, null);
+    }
+
+    @Benchmark
+    public List<SearchResult> sorted() throws IOException {
+        return execute(sortedSearch, null, null);
+    }
+
+    @Benchmark
+    public List<SearchResult> tokenRange() throws IOException {
+        return execute(naturalSearch, tokenRangeQuery, tokenRangeShards);
+    }
+}
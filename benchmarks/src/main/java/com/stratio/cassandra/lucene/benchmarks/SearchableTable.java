@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.builder.BiTemporalMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.DateRangeMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.GeoPointMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.IntegerMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.MapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.StringMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.TextMapperBuilder;
+import com.stratio.cassandra.lucene.service.RowMapper;
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.config.Config;
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.db.ArrayBackedSortedColumns;
+import org.apache.cassandra.db.BufferCell;
+import org.apache.cassandra.db.ColumnFamily;
+import org.apache.cassandra.db.DecoratedKey;
+import org.apache.cassandra.db.Row;
+import org.apache.cassandra.db.composites.CellNameType;
+import org.apache.cassandra.db.composites.Composites;
+import org.apache.cassandra.db.marshal.FloatType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.utils.ByteBufferUtil;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A synthetic indexed skinny table with a column for each kind of mapper targeted by the search conditions, able to
+ * generate {@link Row}s with pseudo-random values to be used by the search benchmarks.
+ * <p/>
+ * The generated values are deterministic for each seed. The {@code name} column takes {@value #NAMES} distinct values,
+ * the {@code body} column contains {@value #BODY_WORDS} words taken from a vocabulary of {@value #WORDS} words, the
+ * {@code number} column is uniformly distributed in [0, {@value #MAX_NUMBER}), the geographical points are uniformly
+ * distributed over the whole world, and the date ranges and bitemporal ranges are spread over {@value #MAX_DAYS} days.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SearchableTable {
+
+    static {
+        Config.setClientMode(true);
+        DatabaseDescriptor.setPartitioner(new Murmur3Partitioner());
+    }
+
+    /** The number of distinct values of the {@code name} column. */
+    public static final int NAMES = 1000;
+
+    /** The number of words in the vocabulary of the {@code body} column. */
+    public static final int WORDS = 1000;
+
+    /** The number of words in each {@code body} column value. */
+    public static final int BODY_WORDS = 20;
+
+    /** The upper bound of the values of the {@code number} column. */
+    public static final int MAX_NUMBER = 1000000;
+
+    /** The number of days over which the date ranges are spread. */
+    public static final int MAX_DAYS = 3650;
+
+    /** The time in milliseconds of the beginning of the date ranges. */
+    public static final long EPOCH = 1420070400000L; // 2015/01/01
+
+    /** The number of milliseconds in a day. */
+    public static final long DAY = 86400000L;
+
+    private static final String KEYSPACE = "benchmarks";
+    private static final String INDEXED_COLUMN = "lucene";
+
+    private final CFMetaData metadata;
+    private final Schema schema;
+    private final RowMapper rowMapper;
+
+    /**
+     * Builds a new {@link SearchableTable}.
+     */
+    public SearchableTable() {
+        String cql = "CREATE TABLE t (pk int PRIMARY KEY, " + INDEXED_COLUMN + " text, name text, body text, " +
+                     "number int, latitude float, longitude float, start bigint, stop bigint, " +
+                     "vt_from bigint, vt_to bigint, tt_from bigint, tt_to bigint)";
+        Map<String, MapperBuilder> mapperBuilders = new HashMap<>();
+        mapperBuilders.put("name", new StringMapperBuilder().setSorted(true));
+        mapperBuilders.put("body", new TextMapperBuilder().setAnalyzer("english"));
+        mapperBuilders.put("number", new IntegerMapperBuilder().setSorted(true));
+        mapperBuilders.put("place", new GeoPointMapperBuilder("latitude", "longitude", null));
+        mapperBuilders.put("duration", new DateRangeMapperBuilder().setStart("start").setStop("stop"));
+        mapperBuilders.put("bitemporal", new BiTemporalMapperBuilder("vt_from", "vt_to", "tt_from", "tt_to", null));
+
+        metadata = CFMetaData.compile(cql, KEYSPACE);
+        schema = new Schema(mapperBuilders, null, null);
+        ColumnDefinition columnDefinition = metadata.getColumnDefinition(ByteBufferUtil.bytes(INDEXED_COLUMN));
+        rowMapper = RowMapper.build(metadata, columnDefinition, schema);
+    }
+
+    /**
+     * Returns the indexing {@link Schema}.
+     *
+     * @return The indexing {@link Schema}.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the {@link RowMapper} of the table.
+     *
+     * @return The {@link RowMapper} of the table.
+     */
+    public RowMapper getRowMapper() {
+        return rowMapper;
+    }
+
+    /**
+     * Returns the partition key with the specified value.
+     *
+     * @param value The value of the partition key column.
+     * @return The partition key with the specified value.
+     */
+    public DecoratedKey partitionKey(int value) {
+        return rowMapper.partitionKey(Int32Type.instance.decompose(value));
+    }
+
+    /**
+     * Returns a new CQL3 {@link Row} with all its columns set, using the specified seed for generating its values.
+     *
+     * @param seed A seed for the generation of the row values.
+     * @return A new CQL3 {@link Row}.
+     */
+    public Row row(int seed) {
+        Random random = new Random(seed);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < BODY_WORDS; i++) {
+            body.append(i == 0 ? "" : " ").append(word(random.nextInt(WORDS)));
+        }
+        long start = EPOCH + random.nextInt(MAX_DAYS) * DAY;
+        long stop = start + random.nextInt(30) * DAY;
+        long vtFrom = EPOCH + random.nextInt(MAX_DAYS) * DAY;
+        long vtTo = vtFrom + random.nextInt(365) * DAY;
+        long ttFrom = EPOCH + random.nextInt(MAX_DAYS) * DAY;
+        long ttTo = ttFrom + random.nextInt(365) * DAY;
+
+        ColumnFamily columnFamily = ArrayBackedSortedColumns.factory.create(metadata);
+        add(columnFamily, "name", UTF8Type.instance.decompose(name(random.nextInt(NAMES))));
+        add(columnFamily, "body", UTF8Type.instance.decompose(body.toString()));
+        add(columnFamily, "number", Int32Type.instance.decompose(random.nextInt(MAX_NUMBER)));
+        add(columnFamily, "latitude", FloatType.instance.decompose(random.nextFloat() * 180 - 90));
+        add(columnFamily, "longitude", FloatType.instance.decompose(random.nextFloat() * 360 - 180));
+        add(columnFamily, "start", LongType.instance.decompose(start));
+        add(columnFamily, "stop", LongType.instance.decompose(stop));
+        add(columnFamily, "vt_from", LongType.instance.decompose(vtFrom));
+        add(columnFamily, "vt_to", LongType.instance.decompose(vtTo));
+        add(columnFamily, "tt_from", LongType.instance.decompose(ttFrom));
+        add(columnFamily, "tt_to", LongType.instance.decompose(ttTo));
+        return new Row(partitionKey(seed), columnFamily);
+    }
+
+    /**
+     * Returns the value of the {@code name} column with the specified index.
+     *
+     * @param index An index in [0, {@link #NAMES}).
+     * @return The value of the {@code name} column with the specified index.
+     */
+    public static String name(int index) {
+        return "name" + index;
+    }
+
+    /**
+     * Returns the word of the {@code body} column vocabulary with the specified index.
+     *
+     * @param index An index in [0, {@link #WORDS}).
+     * @return The word of the {@code body} column vocabulary with the specified index.
+     */
+    public static String word(int index) {
+        return "word" + index;
+    }
+
+    private void add(ColumnFamily columnFamily, String column, ByteBuffer value) {
+        CellNameType comparator = metadata.comparator;
+        ColumnDefinition columnDefinition = metadata.getColumnDefinition(ByteBufferUtil.bytes(column));
+        long timestamp = System.currentTimeMillis() * 1000;
+        columnFamily.addColumn(new BufferCell(comparator.create(Composites.EMPTY, columnDefinition), value, timestamp));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.schema.Column;
+import com.stratio.cassandra.lucene.schema.Columns;
+import com.stratio.cassandra.lucene.schema.mapping.SingleColumnMapper;
+import com.stratio.cassandra.lucene.schema.mapping.builder.BigDecimalMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.BigIntegerMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.BlobMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.BooleanMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.DateMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.DoubleMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.FloatMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.InetMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.IntegerMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.LongMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.StringMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.TextMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.UUIDMapperBuilder;
+import org.apache.cassandra.db.marshal.BooleanType;
+import org.apache.cassandra.db.marshal.BytesType;
+import org.apache.cassandra.db.marshal.DecimalType;
+import org.apache.cassandra.db.marshal.DoubleType;
+import org.apache.cassandra.db.marshal.FloatType;
+import org.apache.cassandra.db.marshal.InetAddressType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.IntegerType;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.TimestampType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.db.marshal.UUIDType;
+import org.apache.lucene.document.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the addition of a column value to a Lucene {@link Document} by each {@link SingleColumnMapper} type, using
+ * the natural Cassandra type of each mapper.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleColumnMapperBenchmark {
+
+    private static final String NAME = "field";
+
+    @Param({"bigdec", "bigint", "blob", "boolean", "date", "double", "float", "inet", "integer", "long", "string",
+            "text", "uuid"})
+    public String type;
+
+    private SingleColumnMapper<?> mapper;
+    private Columns columns;
+
+    @Setup
+    public void setup() throws UnknownHostException {
+        Column<?> column;
+        switch (type) {
+            case "bigdec":
+                mapper = new BigDecimalMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, new BigDecimal("12345.6789"), DecimalType.instance, false);
+                break;
+            case "bigint":
+                mapper = new BigIntegerMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, new BigInteger("123456789"), IntegerType.instance, false);
+                break;
+            case "blob":
+                mapper = new BlobMapperBuilder().build(NAME);
+                ByteBuffer bytes = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+                column = Column.fromComposed(NAME, bytes, BytesType.instance, false);
+                break;
+            case "boolean":
+                mapper = new BooleanMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, true, BooleanType.instance, false);
+                break;
+            case "date":
+                mapper = new DateMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, new Date(), TimestampType.instance, false);
+                break;
+            case "double":
+                mapper = new DoubleMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, 3.14159d, DoubleType.instance, false);
+                break;
+            case "float":
+                mapper = new FloatMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, 3.14159f, FloatType.instance, false);
+                break;
+            case "inet":
+                mapper = new InetMapperBuilder().build(NAME);
+                InetAddress address = InetAddress.getByName("192.168.0.13");
+                column = Column.fromComposed(NAME, address, InetAddressType.instance, false);
+                break;
+            case "integer":
+                mapper = new IntegerMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, 42, Int32Type.instance, false);
+                break;
+            case "long":
+                mapper = new LongMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, 42L, LongType.instance, false);
+                break;
+            case "string":
+                mapper = new StringMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, "Some string value", UTF8Type.instance, false);
+                break;
+            case "text":
+                mapper = new TextMapperBuilder().build(NAME);
+                String text = "The quick brown fox jumps over the lazy dog";
+                column = Column.fromComposed(NAME, text, UTF8Type.instance, false);
+                break;
+            case "uuid":
+                mapper = new UUIDMapperBuilder().build(NAME);
+                column = Column.fromComposed(NAME, UUID.randomUUID(), UUIDType.instance, false);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mapper type " + type);
+        }
+        columns = new Columns().add(column);
+    }
+
+    @Benchmark
+    public Document addFields() {
+        Document document = new Document();
+        mapper.addFields(document, columns);
+        return document;
+    }
+}
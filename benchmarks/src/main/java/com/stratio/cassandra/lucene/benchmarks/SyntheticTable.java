@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.builder.IntegerMapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.MapperBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.builder.StringMapperBuilder;
+import com.stratio.cassandra.lucene.service.RowMapper;
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.config.Config;
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.db.ArrayBackedSortedColumns;
+import org.apache.cassandra.db.BufferCell;
+import org.apache.cassandra.db.ColumnFamily;
+import org.apache.cassandra.db.DecoratedKey;
+import org.apache.cassandra.db.Row;
+import org.apache.cassandra.db.composites.CellNameType;
+import org.apache.cassandra.db.composites.Composite;
+import org.apache.cassandra.db.composites.Composites;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.TimeUUIDType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.cassandra.utils.UUIDGen;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A synthetic indexed table with a configurable number of regular columns and collection sizes, able to generate
+ * {@link Row}s to be used by the benchmarks.
+ * <p/>
+ * The table has {@code width} regular columns alternating {@code text} and {@code int} types, and a {@code list<text>},
+ * a {@code set<int>} and a {@code map<text,int>} column. All the regular columns are mapped in the index {@link
+ * Schema}. Wide tables also have a clustering key composed by an {@code int} and a {@code text} column.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SyntheticTable {
+
+    static {
+        Config.setClientMode(true);
+        DatabaseDescriptor.setPartitioner(new Murmur3Partitioner());
+    }
+
+    private static final String KEYSPACE = "benchmarks";
+    private static final String INDEXED_COLUMN = "lucene";
+
+    private final boolean wide;
+    private final int width;
+    private final int collectionSize;
+    private final CFMetaData metadata;
+    private final Schema schema;
+    private final RowMapper rowMapper;
+
+    /**
+     * Builds a new {@link SyntheticTable}.
+     *
+     * @param wide           If the table has clustering columns.
+     * @param width          The number of regular non-collection columns.
+     * @param collectionSize The number of elements in each collection column of the generated rows.
+     */
+    public SyntheticTable(boolean wide, int width, int collectionSize) {
+        this.wide = wide;
+        this.width = width;
+        this.collectionSize = collectionSize;
+
+        StringBuilder cql = new StringBuilder("CREATE TABLE t (pk int, ");
+        if (wide) {
+            cql.append("ck1 int, ck2 text, ");
+        }
+        cql.append(INDEXED_COLUMN).append(" text, l list<text>, s set<int>, m map<text,int>, ");
+        Map<String, MapperBuilder> mapperBuilders = new HashMap<>();
+        for (int i = 0; i < width; i++) {
+            cql.append(String.format("c%d %s, ", i, i % 2 == 0 ? "text" : "int"));
+            mapperBuilders.put("c" + i, i % 2 == 0 ? new StringMapperBuilder() : new IntegerMapperBuilder());
+        }
+        mapperBuilders.put("l", new StringMapperBuilder());
+        mapperBuilders.put("s", new IntegerMapperBuilder());
+        mapperBuilders.put("m", new IntegerMapperBuilder());
+        cql.append(wide ? "PRIMARY KEY (pk, ck1, ck2))" : "PRIMARY KEY (pk))");
+
+        metadata = CFMetaData.compile(cql.toString(), KEYSPACE);
+        schema = new Schema(mapperBuilders, null, null);
+        ColumnDefinition columnDefinition = metadata.getColumnDefinition(ByteBufferUtil.bytes(INDEXED_COLUMN));
+        rowMapper = RowMapper.build(metadata, columnDefinition, schema);
+    }
+
+    /**
+     * Returns the table metadata.
+     *
+     * @return The table metadata.
+     */
+    public CFMetaData getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Returns the indexing {@link Schema}.
+     *
+     * @return The indexing {@link Schema}.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the {@link RowMapper} of the table.
+     *
+     * @return The {@link RowMapper} of the table.
+     */
+    public RowMapper getRowMapper() {
+        return rowMapper;
+    }
+
+    /**
+     * Returns the partition key with the specified value.
+     *
+     * @param value The value of the partition key column.
+     * @return The partition key with the specified value.
+     */
+    public DecoratedKey partitionKey(int value) {
+        return rowMapper.partitionKey(Int32Type.instance.decompose(value));
+    }
+
+    /**
+     * Returns a new CQL3 {@link Row} with all its columns set, using the specified seed for generating its values.
+     *
+     * @param seed A seed for the generation of the row values.
+     * @return A new CQL3 {@link Row}.
+     */
+    public Row row(int seed) {
+        CellNameType comparator = metadata.comparator;
+        Composite prefix = wide
+                           ? comparator.make(seed % 100, "clustering-" + seed)
+                           : Composites.EMPTY;
+        long timestamp = System.currentTimeMillis() * 1000;
+        ColumnFamily columnFamily = ArrayBackedSortedColumns.factory.create(metadata);
+        if (wide) {
+            columnFamily.addColumn(new BufferCell(comparator.rowMarker(prefix),
+                                                  ByteBufferUtil.EMPTY_BYTE_BUFFER,
+                                                  timestamp));
+        }
+        for (int i = 0; i < width; i++) {
+            ByteBuffer value = i % 2 == 0
+                               ? UTF8Type.instance.decompose("value " + seed + " " + i)
+                               : Int32Type.instance.decompose(seed + i);
+            columnFamily.addColumn(new BufferCell(comparator.create(prefix, column("c" + i)), value, timestamp));
+        }
+        for (int i = 0; i < collectionSize; i++) {
+            ByteBuffer listKey = TimeUUIDType.instance.decompose(UUIDGen.getTimeUUID());
+            ByteBuffer text = UTF8Type.instance.decompose("element " + i);
+            ByteBuffer number = Int32Type.instance.decompose(seed + i);
+            columnFamily.addColumn(new BufferCell(comparator.create(prefix, column("l"), listKey), text, timestamp));
+            columnFamily.addColumn(new BufferCell(comparator.create(prefix, column("s"), number),
+                                                  ByteBufferUtil.EMPTY_BYTE_BUFFER,
+                                                  timestamp));
+            columnFamily.addColumn(new BufferCell(comparator.create(prefix, column("m"), text), number, timestamp));
+        }
+        return new Row(partitionKey(seed), columnFamily);
+    }
+
+    private ColumnDefinition column(String name) {
+        return metadata.getColumnDefinition(ByteBufferUtil.bytes(name));
+    }
+}
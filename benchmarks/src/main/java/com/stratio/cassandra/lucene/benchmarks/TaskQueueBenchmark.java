@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.benchmarks;
+
+import com.stratio.cassandra.lucene.contrib.NotifyingBlockingThreadPoolExecutor;
+import com.stratio.cassandra.lucene.util.TaskQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Benchmarks the throughput of the indexing {@link TaskQueue} with several concurrent producers, comparing it with the
+ * former queue based on a read-write lock and single-thread executors. Each invocation submits a fixed number of tasks
+ * split among the producers and waits for all of them to be processed.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskQueueBenchmark {
+
+    /** The number of tasks submitted in each invocation. */
+    private static final int NUM_TASKS = 1 << 16;
+
+    /** The number of consumer threads of the queue. */
+    private static final int NUM_THREADS = 4;
+
+    /** The max number of tasks in each consumer thread queue. */
+    private static final int QUEUES_SIZE = 1024;
+
+    /** The max number of tasks processed in the same batch. */
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"striped", "locking"})
+    public String queueType;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    public int producers;
+
+    private final AtomicLong processed = new AtomicLong();
+    private Queue queue;
+    private ExecutorService executor;
+    private List<Callable<Void>> submitters;
+
+    /**
+     * A queue of tasks identified by a key.
+     */
+    private interface Queue {
+
+        void submit(Object id, Runnable task);
+
+        void await();
+
+        void shutdown();
+    }
+
+    /**
+     * The current lock-free {@link TaskQueue}.
+     */
+    private static class StripedQueue implements Queue {
+
+        private final TaskQueue<Runnable> queue;
+
+        StripedQueue() {
+            queue = new TaskQueue<>("benchmark", NUM_THREADS, QUEUES_SIZE, BATCH_SIZE, 0,
+                                    new TaskQueue.BatchProcessor<Runnable>() {
+                                        @Override
+                                        public void process(List<Runnable> tasks, long queuedNanos) {
+                                            for (Runnable task : tasks) {
+                                                task.run();
+                                            }
+                                        }
+                                    });
+        }
+
+        @Override
+        public void submit(Object id, Runnable task) {
+            queue.submitAsynchronous(id, task);
+        }
+
+        @Override
+        public void await() {
+            queue.submitSynchronous(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            queue.shutdown();
+        }
+    }
+
+    /**
+     * The former queue, taking a read lock in each submission and running the tasks in single-thread executors.
+     */
+    private static class LockingQueue implements Queue {
+
+        private final NotifyingBlockingThreadPoolExecutor[] pools;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        LockingQueue() {
+            pools = new NotifyingBlockingThreadPoolExecutor[NUM_THREADS];
+            for (int i = 0; i < NUM_THREADS; i++) {
+                pools[i] = new NotifyingBlockingThreadPoolExecutor(1,
+                                                                   QUEUES_SIZE,
+                                                                   Long.MAX_VALUE,
+                                                                   TimeUnit.DAYS,
+                                                                   0,
+                                                                   TimeUnit.NANOSECONDS,
+                                                                   null);
+            }
+        }
+
+        @Override
+        public void submit(Object id, Runnable task) {
+            lock.readLock().lock();
+            try {
+                int i = Math.abs(id.hashCode() % pools.length);
+                pools[i].submit(task);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void await() {
+            lock.writeLock().lock();
+            try {
+                Future<?>[] futures = new Future<?>[pools.length];
+                for (int i = 0; i < pools.length; i++) {
+                    futures[i] = pools[i].submit(new Runnable() {
+                        @Override
+                        public void run() {
+                        }
+                    });
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            for (NotifyingBlockingThreadPoolExecutor pool : pools) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        queue = "striped".equals(queueType) ? new StripedQueue() : new LockingQueue();
+        executor = Executors.newFixedThreadPool(producers);
+        submitters = new ArrayList<>(producers);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                processed.incrementAndGet();
+            }
+        };
+        for (int i = 0; i < producers; i++) {
+            final int producer = i;
+            submitters.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int j = producer; j < NUM_TASKS; j += producers) {
+                        queue.submit(j, task);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+        queue.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_TASKS)
+    public long submit() throws Exception {
+        for (Future<Void> future : executor.invokeAll(submitters)) {
+            future.get();
+        }
+        queue.await();
+        return processed.get();
+    }
+}
@@ -110,6 +110,12 @@ public class Index extends PerRowSecondaryIndex {
             // Build row mapper
             rowService = RowService.build(baseCfs, columnDefinition);
 
+            // Mark the index as not built if its format is outdated, so Cassandra rebuilds it
+            if (rowService.needsRebuild()) {
+                Log.warn("Lucene index %s format is outdated, it will be rebuilt", logName);
+                setIndexRemoved();
+            }
+
             Log.info("Initialized index %s", logName);
         } catch (Exception e) {
             Log.error(e, "Error while initializing Lucene index %s", logName);
@@ -23,6 +23,8 @@ import org.apache.cassandra.config.DatabaseDescriptor;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,9 +39,23 @@ public class IndexConfig {
     public static final String REFRESH_SECONDS_OPTION = "refresh_seconds";
     public static final double DEFAULT_REFRESH_SECONDS = 60;
 
+    public static final String MIN_REFRESH_SECONDS_OPTION = "min_refresh_seconds";
+    public static final double DEFAULT_MIN_REFRESH_SECONDS = 0.1;
+
     public static final String DIRECTORY_PATH_OPTION = "directory_path";
     public static final String INDEXES_DIR_NAME = "lucene";
 
+    public static final String DIRECTORY_TYPE_OPTION = "directory_type";
+    public static final String FS_DIRECTORY_TYPE = "fs";
+    public static final String MMAP_DIRECTORY_TYPE = "mmap";
+    public static final String NIO_DIRECTORY_TYPE = "nio";
+    public static final String RAM_DIRECTORY_TYPE = "ram";
+    public static final String DEFAULT_DIRECTORY_TYPE = FS_DIRECTORY_TYPE;
+    private static final List<String> DIRECTORY_TYPES = Arrays.asList(FS_DIRECTORY_TYPE,
+                                                                      MMAP_DIRECTORY_TYPE,
+                                                                      NIO_DIRECTORY_TYPE,
+                                                                      RAM_DIRECTORY_TYPE);
+
     public static final String RAM_BUFFER_MB_OPTION = "ram_buffer_mb";
     public static final int DEFAULT_RAM_BUFFER_MB = 64;
 
@@ -55,14 +71,60 @@ public class IndexConfig {
     public static final String INDEXING_QUEUES_SIZE_OPTION = "indexing_queues_size";
     public static final int DEFAULT_INDEXING_QUEUES_SIZE = 50;
 
+    public static final String FETCH_THREADS_OPTION = "fetch_threads";
+    public static final int DEFAULT_FETCH_THREADS = 0;
+
+    public static final String SEARCH_CACHE_SIZE_OPTION = "search_cache_size";
+    public static final int DEFAULT_SEARCH_CACHE_SIZE = 1000;
+
+    public static final String SEARCH_THREADS_OPTION = "search_threads";
+    public static final int DEFAULT_SEARCH_THREADS = 0;
+
+    public static final String MIN_SLICE_DOCS_OPTION = "min_slice_docs";
+    public static final int DEFAULT_MIN_SLICE_DOCS = 250000;
+
+    public static final String SHARDS_OPTION = "shards";
+    public static final int DEFAULT_SHARDS = 1;
+
+    public static final String INDEXING_BATCH_SIZE_OPTION = "indexing_batch_size";
+    public static final int DEFAULT_INDEXING_BATCH_SIZE = 100;
+
+    public static final String INDEXING_LINGER_MILLIS_OPTION = "indexing_linger_millis";
+    public static final int DEFAULT_INDEXING_LINGER_MILLIS = 0;
+
+    public static final String SLOW_SEARCH_MILLIS_OPTION = "slow_search_millis";
+    public static final int DEFAULT_SLOW_SEARCH_MILLIS = 0;
+
+    public static final String RESULT_CACHE_MB_OPTION = "result_cache_mb";
+    public static final int DEFAULT_RESULT_CACHE_MB = 16;
+
+    public static final String FILTER_CACHE_MB_OPTION = "filter_cache_mb";
+    public static final int DEFAULT_FILTER_CACHE_MB = 16;
+
+    public static final String BINARY_SCORES_OPTION = "binary_scores";
+    public static final boolean DEFAULT_BINARY_SCORES = false;
+
     private final Schema schema;
     private final double refreshSeconds;
+    private final double minRefreshSeconds;
     private final Path path;
+    private final String directoryType;
     private final int ramBufferMB;
     private final int maxMergeMB;
     private final int maxCachedMB;
     private final int indexingThreads;
     private final int indexingQueuesSize;
+    private final int fetchThreads;
+    private final int searchCacheSize;
+    private final int searchThreads;
+    private final int minSliceDocs;
+    private final int shards;
+    private final int indexingBatchSize;
+    private final int indexingLingerMillis;
+    private final int slowSearchMillis;
+    private final int resultCacheMB;
+    private final int filterCacheMB;
+    private final boolean binaryScores;
 
     /**
      * Builds a new {@link IndexConfig} for the column family defined by the specified metadata using the specified
@@ -73,13 +135,26 @@ public class IndexConfig {
      */
     public IndexConfig(CFMetaData metadata, Map<String, String> options) {
         refreshSeconds = parseRefresh(options);
+        minRefreshSeconds = parseMinRefresh(options, refreshSeconds);
         ramBufferMB = parseRamBufferMB(options);
         maxMergeMB = parseMaxMergeMB(options);
         maxCachedMB = parseMaxCachedMB(options);
         indexingThreads = parseIndexingThreads(options);
         indexingQueuesSize = parseIndexingQueuesSize(options);
+        fetchThreads = parseFetchThreads(options);
+        searchCacheSize = parseSearchCacheSize(options);
+        searchThreads = parseSearchThreads(options);
+        minSliceDocs = parseMinSliceDocs(options);
+        shards = parseShards(options);
+        indexingBatchSize = parseIndexingBatchSize(options);
+        indexingLingerMillis = parseIndexingLingerMillis(options);
+        slowSearchMillis = parseSlowSearchMillis(options);
+        resultCacheMB = parseResultCacheMB(options);
+        filterCacheMB = parseFilterCacheMB(options);
+        binaryScores = parseBinaryScores(options);
         schema = parseSchema(options, metadata);
         path = parsePath(options, metadata);
+        directoryType = parseDirectoryType(options);
     }
 
     /**
@@ -101,6 +176,15 @@ public class IndexConfig {
         return path;
     }
 
+    /**
+     * Returns the type of the Lucene directory, that is, {@code fs}, {@code mmap}, {@code nio} or {@code ram}.
+     *
+     * @return The type of the Lucene directory.
+     */
+    public String getDirectoryType() {
+        return directoryType;
+    }
+
     /**
      * Returns the number of seconds before refreshing the index readers.
      *
@@ -110,6 +194,16 @@ public class IndexConfig {
         return refreshSeconds;
     }
 
+    /**
+     * Returns the min number of seconds between refreshes of the index readers, which are refreshed as soon as
+     * possible when the index is searched after a write.
+     *
+     * @return The min number of seconds between refreshes of the index readers.
+     */
+    public double getMinRefreshSeconds() {
+        return minRefreshSeconds;
+    }
+
     /**
      * Returns the size of the Lucene index writer write buffer. Its content will be committed to disk when full.
      *
@@ -145,6 +239,109 @@ public class IndexConfig {
         return indexingQueuesSize;
     }
 
+    /**
+     * Returns the number of threads used for reading the rows found by searches, where {@code 0} means that the rows
+     * are read sequentially by the searching thread.
+     *
+     * @return The number of threads used for reading the rows found by searches.
+     */
+    public int getFetchThreads() {
+        return fetchThreads;
+    }
+
+    /**
+     * Returns the max number of compiled searches to be cached, where {@code 0} means no caching.
+     *
+     * @return The max number of compiled searches to be cached.
+     */
+    public int getSearchCacheSize() {
+        return searchCacheSize;
+    }
+
+    /**
+     * Returns the number of threads used for searching the index segments concurrently, where {@code 0} means that the
+     * segments are searched sequentially by the searching thread.
+     *
+     * @return The number of threads used for searching the index segments.
+     */
+    public int getSearchThreads() {
+        return searchThreads;
+    }
+
+    /**
+     * Returns the min number of documents of each group of index segments searched by a single thread.
+     *
+     * @return The min number of documents of each group of segments searched by a thread.
+     */
+    public int getMinSliceDocs() {
+        return minSliceDocs;
+    }
+
+    /**
+     * Returns the number of shards of the index, each one containing a range of partition key tokens.
+     *
+     * @return The number of shards of the index.
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Returns the max number of queued indexing tasks to be applied to the index in the same batch.
+     *
+     * @return The max number of queued indexing tasks to be applied to the index in the same batch.
+     */
+    public int getIndexingBatchSize() {
+        return indexingBatchSize;
+    }
+
+    /**
+     * Returns the max time in milliseconds to wait for more indexing tasks before applying an incomplete batch.
+     *
+     * @return The max time in milliseconds to wait for more indexing tasks before applying an incomplete batch.
+     */
+    public int getIndexingLingerMillis() {
+        return indexingLingerMillis;
+    }
+
+    /**
+     * Returns the min search time in milliseconds for logging a search as slow, where {@code 0} means no logging.
+     *
+     * @return The min search time in milliseconds for logging a search as slow.
+     */
+    public int getSlowSearchMillis() {
+        return slowSearchMillis;
+    }
+
+    /**
+     * Returns the max size in MB of the cache of search results, where 0 means no caching.
+     *
+     * @return The max size in MB of the cache of search results.
+     */
+    public int getResultCacheMB() {
+        return resultCacheMB;
+    }
+
+    /**
+     * Returns the max size in MB of the cache of filter condition matches, where 0 means no caching.
+     *
+     * @return The max size in MB of the cache of filter condition matches.
+     */
+    public int getFilterCacheMB() {
+        return filterCacheMB;
+    }
+
+    /**
+     * Returns if the search scores are sent from the replicas to the coordinator as binary floats instead of as text.
+     * Coordinators running previous versions can't read binary scores, so this must be enabled only after upgrading
+     * all the nodes.
+     *
+     * @return {@code true} if the search scores are sent as binary floats, {@code false} if they are sent as text.
+     */
+    public boolean getBinaryScores() {
+        return binaryScores;
+    }
+
     private static double parseRefresh(Map<String, String> options) {
         String refreshOption = options.get(REFRESH_SECONDS_OPTION);
         double refreshSeconds;
@@ -166,6 +363,32 @@ public class IndexConfig {
         }
     }
 
+    private static double parseMinRefresh(Map<String, String> options, double refreshSeconds) {
+        String minRefreshOption = options.get(MIN_REFRESH_SECONDS_OPTION);
+        double minRefreshSeconds;
+        if (minRefreshOption != null) {
+            try {
+                minRefreshSeconds = Double.parseDouble(minRefreshOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a strictly positive double", MIN_REFRESH_SECONDS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (minRefreshSeconds <= 0) {
+                String msg = String.format("'%s' must be strictly positive", MIN_REFRESH_SECONDS_OPTION);
+                throw new RuntimeException(msg);
+            } else if (minRefreshSeconds > refreshSeconds) {
+                String msg = String.format("'%s' must not be greater than '%s'",
+                                           MIN_REFRESH_SECONDS_OPTION,
+                                           REFRESH_SECONDS_OPTION);
+                throw new RuntimeException(msg);
+            } else {
+                return minRefreshSeconds;
+            }
+        } else {
+            return Math.min(DEFAULT_MIN_REFRESH_SECONDS, refreshSeconds);
+        }
+    }
+
     private static int parseRamBufferMB(Map<String, String> options) {
         String ramBufferSizeOption = options.get(RAM_BUFFER_MB_OPTION);
         int ramBufferMB;
@@ -262,6 +485,222 @@ public class IndexConfig {
         }
     }
 
+    private static int parseFetchThreads(Map<String, String> options) {
+        String fetchThreadsOption = options.get(FETCH_THREADS_OPTION);
+        int fetchThreads;
+        if (fetchThreadsOption != null) {
+            try {
+                fetchThreads = Integer.parseInt(fetchThreadsOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a positive integer", FETCH_THREADS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (fetchThreads < 0) {
+                String msg = String.format("'%s' must be positive", FETCH_THREADS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return fetchThreads;
+        } else {
+            return DEFAULT_FETCH_THREADS;
+        }
+    }
+
+    private static int parseSearchCacheSize(Map<String, String> options) {
+        String searchCacheSizeOption = options.get(SEARCH_CACHE_SIZE_OPTION);
+        int searchCacheSize;
+        if (searchCacheSizeOption != null) {
+            try {
+                searchCacheSize = Integer.parseInt(searchCacheSizeOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a positive integer", SEARCH_CACHE_SIZE_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (searchCacheSize < 0) {
+                String msg = String.format("'%s' must be positive", SEARCH_CACHE_SIZE_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return searchCacheSize;
+        } else {
+            return DEFAULT_SEARCH_CACHE_SIZE;
+        }
+    }
+
+    private static int parseSearchThreads(Map<String, String> options) {
+        String searchThreadsOption = options.get(SEARCH_THREADS_OPTION);
+        int searchThreads;
+        if (searchThreadsOption != null) {
+            try {
+                searchThreads = Integer.parseInt(searchThreadsOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a positive integer", SEARCH_THREADS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (searchThreads < 0) {
+                String msg = String.format("'%s' must be positive", SEARCH_THREADS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return searchThreads;
+        } else {
+            return DEFAULT_SEARCH_THREADS;
+        }
+    }
+
+    private static int parseMinSliceDocs(Map<String, String> options) {
+        String minSliceDocsOption = options.get(MIN_SLICE_DOCS_OPTION);
+        int minSliceDocs;
+        if (minSliceDocsOption != null) {
+            try {
+                minSliceDocs = Integer.parseInt(minSliceDocsOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a strictly positive integer", MIN_SLICE_DOCS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (minSliceDocs <= 0) {
+                String msg = String.format("'%s' must be strictly positive", MIN_SLICE_DOCS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return minSliceDocs;
+        } else {
+            return DEFAULT_MIN_SLICE_DOCS;
+        }
+    }
+
+    private static int parseShards(Map<String, String> options) {
+        String shardsOption = options.get(SHARDS_OPTION);
+        int shards;
+        if (shardsOption != null) {
+            try {
+                shards = Integer.parseInt(shardsOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a strictly positive integer", SHARDS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (shards <= 0) {
+                String msg = String.format("'%s' must be strictly positive", SHARDS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return shards;
+        } else {
+            return DEFAULT_SHARDS;
+        }
+    }
+
+    private static int parseIndexingBatchSize(Map<String, String> options) {
+        String indexingBatchSizeOption = options.get(INDEXING_BATCH_SIZE_OPTION);
+        int indexingBatchSize;
+        if (indexingBatchSizeOption != null) {
+            try {
+                indexingBatchSize = Integer.parseInt(indexingBatchSizeOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a strictly positive integer", INDEXING_BATCH_SIZE_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (indexingBatchSize <= 0) {
+                String msg = String.format("'%s' must be strictly positive", INDEXING_BATCH_SIZE_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return indexingBatchSize;
+        } else {
+            return DEFAULT_INDEXING_BATCH_SIZE;
+        }
+    }
+
+    private static int parseIndexingLingerMillis(Map<String, String> options) {
+        String indexingLingerMillisOption = options.get(INDEXING_LINGER_MILLIS_OPTION);
+        int indexingLingerMillis;
+        if (indexingLingerMillisOption != null) {
+            try {
+                indexingLingerMillis = Integer.parseInt(indexingLingerMillisOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a positive integer", INDEXING_LINGER_MILLIS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (indexingLingerMillis < 0) {
+                String msg = String.format("'%s' must be positive", INDEXING_LINGER_MILLIS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return indexingLingerMillis;
+        } else {
+            return DEFAULT_INDEXING_LINGER_MILLIS;
+        }
+    }
+
+    private static int parseSlowSearchMillis(Map<String, String> options) {
+        String slowSearchMillisOption = options.get(SLOW_SEARCH_MILLIS_OPTION);
+        int slowSearchMillis;
+        if (slowSearchMillisOption != null) {
+            try {
+                slowSearchMillis = Integer.parseInt(slowSearchMillisOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a positive integer", SLOW_SEARCH_MILLIS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (slowSearchMillis < 0) {
+                String msg = String.format("'%s' must be positive", SLOW_SEARCH_MILLIS_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return slowSearchMillis;
+        } else {
+            return DEFAULT_SLOW_SEARCH_MILLIS;
+        }
+    }
+
+    private static int parseResultCacheMB(Map<String, String> options) {
+        String resultCacheMBOption = options.get(RESULT_CACHE_MB_OPTION);
+        int resultCacheMB;
+        if (resultCacheMBOption != null) {
+            try {
+                resultCacheMB = Integer.parseInt(resultCacheMBOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a positive integer", RESULT_CACHE_MB_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (resultCacheMB < 0) {
+                String msg = String.format("'%s' must be positive", RESULT_CACHE_MB_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return resultCacheMB;
+        } else {
+            return DEFAULT_RESULT_CACHE_MB;
+        }
+    }
+
+    private static int parseFilterCacheMB(Map<String, String> options) {
+        String filterCacheMBOption = options.get(FILTER_CACHE_MB_OPTION);
+        int filterCacheMB;
+        if (filterCacheMBOption != null) {
+            try {
+                filterCacheMB = Integer.parseInt(filterCacheMBOption);
+            } catch (NumberFormatException e) {
+                String msg = String.format("'%s' must be a positive integer", FILTER_CACHE_MB_OPTION);
+                throw new RuntimeException(msg);
+            }
+            if (filterCacheMB < 0) {
+                String msg = String.format("'%s' must be positive", FILTER_CACHE_MB_OPTION);
+                throw new RuntimeException(msg);
+            }
+            return filterCacheMB;
+        } else {
+            return DEFAULT_FILTER_CACHE_MB;
+        }
+    }
+
+    private static boolean parseBinaryScores(Map<String, String> options) {
+        String binaryScoresOption = options.get(BINARY_SCORES_OPTION);
+        if (binaryScoresOption != null) {
+            if (binaryScoresOption.equalsIgnoreCase("true")) {
+                return true;
+            } else if (binaryScoresOption.equalsIgnoreCase("false")) {
+                return false;
+            } else {
+                String msg = String.format("'%s' must be a boolean", BINARY_SCORES_OPTION);
+                throw new RuntimeException(msg);
+            }
+        } else {
+            return DEFAULT_BINARY_SCORES;
+        }
+    }
+
     private static Schema parseSchema(Map<String, String> options, CFMetaData metadata) {
         String schemaOption = options.get(SCHEMA_OPTION);
         Schema schema;
@@ -298,18 +737,44 @@ public class IndexConfig {
         }
     }
 
+    private static String parseDirectoryType(Map<String, String> options) {
+        String directoryTypeOption = options.get(DIRECTORY_TYPE_OPTION);
+        if (directoryTypeOption != null) {
+            if (!DIRECTORY_TYPES.contains(directoryTypeOption)) {
+                String msg = String.format("'%s' must be one of %s", DIRECTORY_TYPE_OPTION, DIRECTORY_TYPES);
+                throw new RuntimeException(msg);
+            }
+            return directoryTypeOption;
+        } else {
+            return DEFAULT_DIRECTORY_TYPE;
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
         return Objects.toStringHelper(this)
                       .add("schema", schema)
                       .add("refreshSeconds", refreshSeconds)
+                      .add("minRefreshSeconds", minRefreshSeconds)
                       .add("path", path)
+                      .add("directoryType", directoryType)
                       .add("ramBufferMB", ramBufferMB)
                       .add("maxMergeMB", maxMergeMB)
                       .add("maxCachedMB", maxCachedMB)
                       .add("indexingThreads", indexingThreads)
                       .add("indexingQueuesSize", indexingQueuesSize)
+                      .add("fetchThreads", fetchThreads)
+                      .add("searchCacheSize", searchCacheSize)
+                      .add("searchThreads", searchThreads)
+                      .add("minSliceDocs", minSliceDocs)
+                      .add("shards", shards)
+                      .add("indexingBatchSize", indexingBatchSize)
+                      .add("indexingLingerMillis", indexingLingerMillis)
+                      .add("slowSearchMillis", slowSearchMillis)
+                      .add("resultCacheMB", resultCacheMB)
+                      .add("filterCacheMB", filterCacheMB)
+                      .add("binaryScores", binaryScores)
                       .toString();
     }
 }
@@ -17,10 +17,10 @@ package com.stratio.cassandra.lucene;
 
 import com.google.common.base.Objects;
 import com.stratio.cassandra.lucene.query.Search;
-import com.stratio.cassandra.lucene.query.builder.SearchBuilder;
-import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.service.CompiledSearch;
 import com.stratio.cassandra.lucene.service.RowService;
 import com.stratio.cassandra.lucene.util.Log;
+import com.stratio.cassandra.lucene.util.SortedRuns;
 import org.apache.cassandra.db.DataRange;
 import org.apache.cassandra.db.IndexExpression;
 import org.apache.cassandra.db.Row;
@@ -33,11 +33,8 @@ import org.apache.cassandra.exceptions.InvalidRequestException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import static org.apache.cassandra.cql3.Operator.EQ;
 
@@ -50,7 +47,6 @@ class IndexSearcher extends SecondaryIndexSearcher {
 
     private final Index index;
     private final RowService rowService;
-    private final Schema schema;
     private final ByteBuffer indexedColumnName;
 
     /**
@@ -68,7 +64,6 @@ class IndexSearcher extends SecondaryIndexSearcher {
         super(indexManager, columns);
         this.index = index;
         this.rowService = rowService;
-        schema = rowService.getSchema();
         indexedColumnName = index.getColumnDefinition().name.bytes;
     }
 
@@ -83,7 +78,7 @@ class IndexSearcher extends SecondaryIndexSearcher {
             DataRange dataRange = extendedFilter.dataRange;
             List<IndexExpression> clause = extendedFilter.getClause();
             List<IndexExpression> filteredExpressions = filteredExpressions(clause);
-            Search search = search(clause);
+            CompiledSearch search = search(clause);
             return rowService.search(search, filteredExpressions, dataRange, limit, timestamp);
         } catch (IOException e) {
             Log.error(e, "Error while searching: %s", extendedFilter);
@@ -128,25 +123,25 @@ class IndexSearcher extends SecondaryIndexSearcher {
     public void validate(IndexExpression indexExpression) throws InvalidRequestException {
         try {
             String json = UTF8Type.instance.compose(indexExpression.value);
-            SearchBuilder.fromJson(json).build().validate(schema);
+            rowService.compile(json);
         } catch (Exception e) {
             throw new InvalidRequestException(e.getMessage());
         }
     }
 
     /**
-     * Returns the {@link Search} contained in the specified list of {@link IndexExpression}s.
+     * Returns the {@link CompiledSearch} contained in the specified list of {@link IndexExpression}s.
      *
      * @param clause A list of {@link IndexExpression}s.
-     * @return The {@link Search} contained in the specified list of {@link IndexExpression}s.
+     * @return The {@link CompiledSearch} contained in the specified list of {@link IndexExpression}s.
      */
-    private Search search(List<IndexExpression> clause) {
+    private CompiledSearch search(List<IndexExpression> clause) {
         IndexExpression indexedExpression = indexedExpression(clause);
         if (indexedExpression == null) {
             throw new RuntimeException("There is no index expression in the clause");
         }
         String json = UTF8Type.instance.compose(indexedExpression.value);
-        return SearchBuilder.fromJson(json).build();
+        return rowService.compile(json);
     }
 
     /**
@@ -185,7 +180,7 @@ class IndexSearcher extends SecondaryIndexSearcher {
     /** {@inheritDoc} */
     @Override
     public boolean requiresScanningAllRanges(List<IndexExpression> clause) {
-        Search search = search(clause);
+        Search search = search(clause).getSearch();
         return search.usesRelevanceOrSorting();
     }
 
@@ -196,21 +191,24 @@ class IndexSearcher extends SecondaryIndexSearcher {
         int startSize = rows.size();
         long startTime = System.currentTimeMillis();
 
-        // Remove duplicates
-        TreeSet<Row> set = new TreeSet<>(rowService.comparator());
-        set.addAll(rows);
-        List<Row> result = new ArrayList<>(set);
+        // Remove duplicates merging the partial results of each token range, which are in natural order
+        List<Row> result = SortedRuns.mergeDistinct(rows, rowService.comparator());
 
-        // Sort
-        Search search = search(clause);
-        Comparator<Row> comparator = rowService.comparator(search);
-        Collections.sort(result, comparator);
+        // Sort, unless natural order is required
+        Search search = search(clause).getSearch();
+        if (search.usesRelevanceOrSorting()) {
+            rowService.sort(result, search);
+        }
+
+        // Return human-readable scores
+        if (search.usesRelevance()) {
+            rowService.formatScores(result);
+        }
 
-        String comparatorName = comparator.getClass().getSimpleName();
         int endSize = result.size();
         long endTime = System.currentTimeMillis() - startTime;
 
-        Log.debug("Sorted %d rows to %d with comparator %s in %d ms\n", startSize, endSize, comparatorName, endTime);
+        Log.debug("Sorted %d rows to %d for search %s in %d ms\n", startSize, endSize, search, endTime);
 
         return result;
     }
@@ -107,29 +107,49 @@ public class SortField {
                     return -1;
                 }
 
-                Columns columns1 = o1.getColumnsByName(field);
-                Columns columns2 = o2.getColumnsByName(field);
-                if (columns1.size() > 1 || columns2.size() > 1) {
-                    throw new RuntimeException("Sorting in multivalued columns is not supported");
-                }
-                Column<?> column1 = columns1.getFirst();
-                Column<?> column2 = columns2.getFirst();
-
-                if (column1 == null) {
-                    return column2 == null ? 0 : 1;
-                }
-                if (column2 == null) {
-                    return -1;
-                }
-
-                AbstractType<?> type = column1.getType();
-                ByteBuffer value1 = column1.getDecomposedValue();
-                ByteBuffer value2 = column2.getDecomposedValue();
-                return reverse ? type.compare(value2, value1) : type.compare(value1, value2);
+                return SortField.this.compare(column(o1), column(o2));
             }
         };
     }
 
+    /**
+     * Returns the {@link Column} of the specified {@link Columns} to be used by this {@link SortField}, maybe {@code
+     * null} if there is no such column. This is the sort key to be compared with {@link #compare(Column, Column)}.
+     *
+     * @param columns A {@link Columns}.
+     * @return The {@link Column} used by this {@link SortField}.
+     */
+    public Column<?> column(Columns columns) {
+        Columns fieldColumns = columns.getColumnsByName(field);
+        if (fieldColumns.size() > 1) {
+            throw new RuntimeException("Sorting in multivalued columns is not supported");
+        }
+        return fieldColumns.getFirst();
+    }
+
+    /**
+     * Compares the specified sort keys obtained with {@link #column(Columns)} according to this {@link SortField}.
+     * Missing keys are sorted last.
+     *
+     * @param column1 A sort key, maybe {@code null}.
+     * @param column2 Another sort key, maybe {@code null}.
+     * @return A negative integer, zero, or a positive integer as the first argument is less than, equal to, or greater
+     * than the second.
+     */
+    public int compare(Column<?> column1, Column<?> column2) {
+        if (column1 == null) {
+            return column2 == null ? 0 : 1;
+        }
+        if (column2 == null) {
+            return -1;
+        }
+
+        AbstractType<?> type = column1.getType();
+        ByteBuffer value1 = column1.getDecomposedValue();
+        ByteBuffer value2 = column2.getDecomposedValue();
+        return reverse ? type.compare(value2, value1) : type.compare(value1, value2);
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.stratio.cassandra.lucene.util.Log;
+import org.apache.lucene.search.SearcherManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread refreshing the NRT searchers of a {@link SearcherManager} at an interval adapted to the write and search
+ * activity. The searchers are not refreshed while there are no changes. If there are changes, they are refreshed as
+ * soon as a search arrives and the min refresh interval has elapsed since the last refresh, or when the max refresh
+ * interval has elapsed otherwise.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class AdaptiveRefresher extends Thread implements Closeable {
+
+    private final SearcherManager searcherManager;
+    private final long minRefreshNanos;
+    private final long maxRefreshNanos;
+    private final IndexMetrics metrics;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final AtomicLong changes = new AtomicLong();
+
+    private volatile long refreshedChanges;
+    private volatile boolean searched;
+    private volatile boolean finish;
+
+    /**
+     * Builds a new {@link AdaptiveRefresher} for the specified {@link SearcherManager}.
+     *
+     * @param searcherManager   The {@link SearcherManager} to be refreshed.
+     * @param minRefreshSeconds The min time in seconds between refreshes.
+     * @param maxRefreshSeconds The max time in seconds before refreshing after a change.
+     * @param metrics           The {@link IndexMetrics} where the refreshes are recorded.
+     * @param name              The name of the thread.
+     */
+    public AdaptiveRefresher(SearcherManager searcherManager,
+                             double minRefreshSeconds,
+                             double maxRefreshSeconds,
+                             IndexMetrics metrics,
+                             String name) {
+        super(name);
+        this.searcherManager = searcherManager;
+        this.minRefreshNanos = (long) (minRefreshSeconds * TimeUnit.SECONDS.toNanos(1));
+        this.maxRefreshNanos = (long) (maxRefreshSeconds * TimeUnit.SECONDS.toNanos(1));
+        this.metrics = metrics;
+        setDaemon(true);
+    }
+
+    /**
+     * Notifies that the index has changed, so the searchers should be refreshed before the max refresh interval.
+     */
+    public void onChange() {
+        if (changes.getAndIncrement() == refreshedChanges) {
+            signal(); // Wake up from idle waiting
+        }
+    }
+
+    /**
+     * Notifies that the index is being searched, so the searchers should be refreshed as soon as possible if there are
+     * changes.
+     */
+    public void onSearch() {
+        if (!searched && changes.get() != refreshedChanges) {
+            searched = true;
+            signal();
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            condition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+        long lastRefresh = System.nanoTime();
+        while (true) {
+            long pendingChanges;
+            lock.lock();
+            try {
+                if (finish) {
+                    return;
+                }
+                pendingChanges = changes.get();
+                if (pendingChanges == refreshedChanges) {
+                    condition.awaitNanos(maxRefreshNanos); // Nothing to refresh
+                    continue;
+                }
+                long waitNanos = lastRefresh + (searched ? minRefreshNanos : maxRefreshNanos) - System.nanoTime();
+                if (waitNanos > 0) {
+                    condition.awaitNanos(waitNanos);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            searched = false;
+            long startTime = System.nanoTime();
+            try {
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException e) {
+                Log.error(e, "Error while refreshing %s", getName());
+            }
+            lastRefresh = System.nanoTime();
+            refreshedChanges = pendingChanges;
+            metrics.recordRefresh(lastRefresh - startTime);
+        }
+    }
+
+    /**
+     * Stops this thread, waiting for the current refresh, if any, to finish.
+     */
+    @Override
+    public void close() {
+        finish = true;
+        signal();
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
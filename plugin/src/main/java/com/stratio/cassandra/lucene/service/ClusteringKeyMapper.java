@@ -17,7 +17,9 @@ package com.stratio.cassandra.lucene.service;
 
 import com.stratio.cassandra.lucene.schema.Column;
 import com.stratio.cassandra.lucene.schema.Columns;
+import com.stratio.cassandra.lucene.util.BinaryTokenStream;
 import com.stratio.cassandra.lucene.util.ByteBufferUtils;
+import com.stratio.cassandra.lucene.util.OrderPreservingBytes;
 import org.apache.cassandra.config.CFMetaData;
 import org.apache.cassandra.config.ColumnDefinition;
 import org.apache.cassandra.db.ArrayBackedSortedColumns;
@@ -34,11 +36,15 @@ import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
-import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.FieldComparatorSource;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRef;
 
 import java.io.IOException;
@@ -68,6 +74,12 @@ public class ClusteringKeyMapper {
     /** The type of the clustering key, which is the type of the column names */
     private final CellNameType cellNameType;
 
+    /** The types of the clustering key components, maybe reversed */
+    private final List<AbstractType<?>> types;
+
+    /** If the clustering keys are indexed with an order-preserving encoding instead of their raw bytes */
+    private final boolean orderPreserving;
+
     /**
      * Returns a new {@code ClusteringKeyMapper} according to the specified column family meta data.
      *
@@ -76,6 +88,11 @@ public class ClusteringKeyMapper {
     private ClusteringKeyMapper(CFMetaData metadata) {
         this.metadata = metadata;
         this.cellNameType = metadata.comparator;
+        types = new ArrayList<>(cellNameType.clusteringPrefixSize());
+        for (int i = 0; i < cellNameType.clusteringPrefixSize(); i++) {
+            types.add(cellNameType.subtype(i));
+        }
+        orderPreserving = OrderPreservingBytes.isSupported(types);
     }
 
     /**
@@ -97,6 +114,18 @@ public class ClusteringKeyMapper {
         return cellNameType;
     }
 
+    /**
+     * Returns if the clustering keys are indexed with an order-preserving encoding, so they can be sorted and sought
+     * without decoding them. This happens when all the clustering key columns types are supported by {@link
+     * OrderPreservingBytes}, otherwise the raw clustering keys are indexed.
+     *
+     * @return {@code true} if the clustering keys are indexed with an order-preserving encoding, {@code false}
+     * otherwise.
+     */
+    public boolean isOrderPreserving() {
+        return orderPreserving;
+    }
+
     /**
      * Adds to the specified document the clustering key contained in the specified cell name.
      *
@@ -104,9 +133,8 @@ public class ClusteringKeyMapper {
      * @param cellName A cell name containing the clustering key to be added.
      */
     public void addFields(Document document, CellName cellName) {
-        String serializedKey = ByteBufferUtils.toString(cellName.toByteBuffer());
-        BytesRef bytesRef = new BytesRef(serializedKey);
-        document.add(new StringField(FIELD_NAME, serializedKey, Field.Store.YES));
+        BytesRef bytesRef = bytesRef(cellName);
+        document.add(new Field(FIELD_NAME, new BinaryTokenStream(bytesRef), BinaryTokenStream.FIELD_TYPE));
         document.add(new SortedDocValuesField(FIELD_NAME, bytesRef));
     }
 
@@ -186,27 +214,82 @@ public class ClusteringKeyMapper {
     }
 
     /**
-     * Returns the clustering key contained in the specified {@link CellName}.
+     * Returns the clustering key contained in the specified Lucene field value.
      *
-     * @param document A {@link Document}.
-     * @return The clustering key contained in the specified {@link CellName}.
+     * @param bytesRef The {@link BytesRef} containing the raw clustering key to be get.
+     * @return The clustering key contained in the specified Lucene field value.
      */
-    public final CellName clusteringKey(Document document) {
-        String string = document.get(FIELD_NAME);
-        ByteBuffer bb = ByteBufferUtils.fromString(string);
+    public final CellName clusteringKey(BytesRef bytesRef) {
+        if (orderPreserving) {
+            return rowMarker(OrderPreservingBytes.decode(types, bytesRef));
+        }
+        ByteBuffer bb = ByteBufferUtils.byteBuffer(bytesRef);
         return cellNameType.cellFromByteBuffer(bb);
     }
 
     /**
-     * Returns the clustering key contained in the specified Lucene field value.
+     * Returns the Lucene field value representing the specified clustering key.
      *
-     * @param bytesRef The {@link BytesRef} containing the raw clustering key to be get.
-     * @return The clustering key contained in the specified Lucene field value.
+     * @param cellName A clustering key.
+     * @return The Lucene field value representing {@code cellName}.
      */
-    public final CellName clusteringKey(BytesRef bytesRef) {
-        String string = bytesRef.utf8ToString();
-        ByteBuffer bb = ByteBufferUtils.fromString(string);
-        return cellNameType.cellFromByteBuffer(bb);
+    private BytesRef bytesRef(CellName cellName) {
+        if (orderPreserving) {
+            return OrderPreservingBytes.encode(types, components(cellName));
+        }
+        return ByteBufferUtils.bytesRef(cellName.toByteBuffer());
+    }
+
+    /**
+     * Returns the clustering key components contained in the specified {@link Composite}, which can be a prefix.
+     *
+     * @param composite A {@link Composite}.
+     * @return The clustering key components contained in {@code composite}.
+     */
+    private List<ByteBuffer> components(Composite composite) {
+        int size = Math.min(composite.size(), types.size());
+        List<ByteBuffer> components = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            components.add(composite.get(i));
+        }
+        return components;
+    }
+
+    /**
+     * Returns the clustering key composed by the specified components, padding it with empty components if needed.
+     *
+     * @param components The clustering key components.
+     * @return The clustering key composed by {@code components}.
+     */
+    private CellName rowMarker(List<ByteBuffer> components) {
+        CBuilder builder = cellNameType.builder();
+        for (int i = 0; i < types.size(); i++) {
+            builder.add(i < components.size() ? components.get(i) : ByteBufferUtil.EMPTY_BYTE_BUFFER);
+        }
+        return cellNameType.rowMarker(builder.build());
+    }
+
+    /**
+     * Returns the clustering keys doc values of the specified index segment.
+     *
+     * @param reader A Lucene index segment reader.
+     * @return The clustering keys doc values of the specified index segment.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public SortedDocValues docValues(LeafReader reader) throws IOException {
+        return DocValues.getSorted(reader, FIELD_NAME);
+    }
+
+    /**
+     * Returns the clustering key of the specified document contained in the specified doc values.
+     *
+     * @param docValues The clustering keys doc values of an index segment.
+     * @param docId     The segment-relative document id.
+     * @return The clustering key of the document identified by {@code docId}.
+     */
+    public final CellName clusteringKey(SortedDocValues docValues, int docId) {
+        BytesRef bytesRef = docValues.get(docId);
+        return clusteringKey(bytesRef);
     }
 
     /**
@@ -321,6 +404,9 @@ public class ClusteringKeyMapper {
      * @return A Lucene {@link SortField} array for sorting documents/rows according to the column family name.
      */
     public SortField[] sortFields() {
+        if (orderPreserving) {
+            return new SortField[]{new SortField(FIELD_NAME, SortField.Type.STRING)};
+        }
         return new SortField[]{new SortField(FIELD_NAME, new FieldComparatorSource() {
             @Override
             public FieldComparator<?> newComparator(String field, int hits, int sort, boolean reversed)
@@ -345,7 +431,36 @@ public class ClusteringKeyMapper {
      * specified column name prefixes.
      */
     public Query query(Composite start, Composite stop) {
-        return new ClusteringKeyQuery(start, stop, this);
+        if (!orderPreserving) {
+            return new ClusteringKeyQuery(start, stop, this);
+        }
+        BytesRef lower = null;
+        if (start != null && !start.isEmpty()) {
+            BytesRef prefix = OrderPreservingBytes.encode(types, components(start));
+            lower = includesPrefixed(start, true) ? prefix : OrderPreservingBytes.successor(prefix);
+            if (lower == null) {
+                return new BooleanQuery();
+            }
+        }
+        BytesRef upper = null;
+        if (stop != null && !stop.isEmpty()) {
+            BytesRef prefix = OrderPreservingBytes.encode(types, components(stop));
+            upper = includesPrefixed(stop, false) ? OrderPreservingBytes.successor(prefix) : prefix;
+        }
+        return new TermRangeQuery(FIELD_NAME, lower, upper, true, false);
+    }
+
+    /**
+     * Returns if the clustering keys starting with the clustering key components of the specified slice bound are
+     * inside the slice, according to the bound end-of-component and to its components after the clustering key.
+     *
+     * @param bound   A slice bound.
+     * @param isStart If {@code bound} is the slice start, otherwise it is the slice stop.
+     * @return {@code true} if the clustering keys prefixed by {@code bound} are inside the slice.
+     */
+    private boolean includesPrefixed(Composite bound, boolean isStart) {
+        int comparison = cellNameType.compare(bound, rowMarker(components(bound)));
+        return isStart ? comparison <= 0 : comparison >= 0;
     }
 
     /**
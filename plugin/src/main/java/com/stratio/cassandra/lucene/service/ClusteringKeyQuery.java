@@ -15,6 +15,7 @@
  */
 package com.stratio.cassandra.lucene.service;
 
+import com.google.common.base.Objects;
 import org.apache.cassandra.db.composites.CellName;
 import org.apache.cassandra.db.composites.CellNameType;
 import org.apache.cassandra.db.composites.Composite;
@@ -29,6 +30,9 @@ import org.apache.lucene.util.BytesRef;
 import java.io.IOException;
 
 /**
+ * {@link MultiTermQuery} for clustering key ranges, decoding each raw clustering key term. It is only used when the
+ * clustering keys are not indexed with an order-preserving encoding, so the ranges can't be sought.
+ *
  * @author Andres de la Pena <adelapena@stratio.com>
  */
 class ClusteringKeyQuery extends MultiTermQuery {
@@ -59,6 +63,25 @@ class ClusteringKeyQuery extends MultiTermQuery {
                                         .toString();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        ClusteringKeyQuery query = (ClusteringKeyQuery) o;
+        return Objects.equal(start, query.start) && Objects.equal(stop, query.stop);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(start, stop);
+    }
+
     private class FullKeyDataRangeFilteredTermsEnum extends FilteredTermsEnum {
 
         public FullKeyDataRangeFilteredTermsEnum(TermsEnum tenum) {
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.google.common.base.Objects;
+import com.stratio.cassandra.lucene.query.Search;
+import com.stratio.cassandra.lucene.schema.Schema;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+
+/**
+ * A {@link Search} together with its Lucene {@link Query} and {@link Sort} already built for a certain {@link Schema},
+ * so they can be reused across searches without being rebuilt.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class CompiledSearch {
+
+    private final String json;
+    private final Search search;
+    private final Query query;
+    private final Sort sort;
+
+    /**
+     * Returns a new {@link CompiledSearch} for the specified {@link Search} using the specified {@link Schema}.
+     *
+     * @param json   The JSON representation of {@code search}.
+     * @param search The {@link Search} to be compiled.
+     * @param schema The {@link Schema} to be used.
+     */
+    public CompiledSearch(String json, Search search, Schema schema) {
+        this.json = json;
+        this.search = search;
+        this.query = search.query(schema, null);
+        this.sort = search.sort(schema);
+    }
+
+    /**
+     * Returns the JSON representation of the compiled {@link Search}.
+     *
+     * @return The JSON representation of the compiled {@link Search}.
+     */
+    public String getJson() {
+        return json;
+    }
+
+    /**
+     * Returns the compiled {@link Search}.
+     *
+     * @return The compiled {@link Search}.
+     */
+    public Search getSearch() {
+        return search;
+    }
+
+    /**
+     * Returns the Lucene {@link Query} representation of the compiled {@link Search} restricted to the specified range
+     * {@link Query}. It never returns {@code null}.
+     *
+     * @param rangeQuery An additional range {@link Query} to be used, maybe {@code null} meaning no range.
+     * @return The Lucene {@link Query} representation of the compiled {@link Search}.
+     */
+    public Query query(Query rangeQuery) {
+        if (rangeQuery == null) {
+            return query;
+        }
+        BooleanQuery booleanQuery = new BooleanQuery();
+        if (!(query instanceof MatchAllDocsQuery)) {
+            booleanQuery.add(query, BooleanClause.Occur.MUST);
+        }
+        booleanQuery.add(rangeQuery, BooleanClause.Occur.MUST);
+        return booleanQuery;
+    }
+
+    /**
+     * Returns the Lucene {@link Sort} of the compiled {@link Search}, maybe {@code null} meaning no field sorting.
+     *
+     * @return The Lucene {@link Sort} of the compiled {@link Search}.
+     */
+    public Sort sort() {
+        return sort;
+    }
+
+    /**
+     * Returns {@code true} if the compiled {@link Search} uses Lucene relevance formula, {@code false} otherwise.
+     *
+     * @return {@code true} if the compiled {@link Search} uses Lucene relevance formula, {@code false} otherwise.
+     */
+    public boolean usesRelevance() {
+        return search.usesRelevance();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("search", search).add("query", query).add("sort", sort).toString();
+    }
+}
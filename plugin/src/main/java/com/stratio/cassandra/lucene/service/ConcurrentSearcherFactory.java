@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.google.common.base.Objects;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.QueryCache;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.SearcherFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link SearcherFactory} building {@link IndexSearcher}s that search the index segments concurrently using an {@link
+ * ExecutorService}. Segments are grouped in slices having at least a minimum number of documents, and each slice is
+ * searched by a single thread. Indexes too small for having more than one slice are searched in the calling thread.
+ * The matches of the non-scoring clauses, such as the filtering conditions, are cached by a {@link QueryCache}.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class ConcurrentSearcherFactory extends SearcherFactory {
+
+    private final ExecutorService executor;
+    private final int minSliceDocs;
+    private final QueryCache queryCache;
+    private final QueryCachingPolicy cachingPolicy;
+
+    /**
+     * Builds a new {@link ConcurrentSearcherFactory} without query caching.
+     *
+     * @param executor     The {@link ExecutorService} to be used for searching the slices, {@code null} means
+     *                     single-threaded search.
+     * @param minSliceDocs The min number of documents of each slice.
+     */
+    public ConcurrentSearcherFactory(ExecutorService executor, int minSliceDocs) {
+        this(executor, minSliceDocs, null, null);
+    }
+
+    /**
+     * Builds a new {@link ConcurrentSearcherFactory}.
+     *
+     * @param executor      The {@link ExecutorService} to be used for searching the slices, {@code null} means
+     *                      single-threaded search.
+     * @param minSliceDocs  The min number of documents of each slice.
+     * @param queryCache    The {@link QueryCache} to be shared by all the built searchers, {@code null} means no
+     *                      caching.
+     * @param cachingPolicy The {@link QueryCachingPolicy} deciding which queries are cached, maybe {@code null} if
+     *                      there is no {@code queryCache}.
+     */
+    public ConcurrentSearcherFactory(ExecutorService executor,
+                                     int minSliceDocs,
+                                     QueryCache queryCache,
+                                     QueryCachingPolicy cachingPolicy) {
+        this.executor = executor;
+        this.minSliceDocs = minSliceDocs;
+        this.queryCache = queryCache;
+        this.cachingPolicy = cachingPolicy;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public IndexSearcher newSearcher(IndexReader reader) throws IOException {
+        IndexSearcher searcher;
+        if (executor == null) {
+            searcher = new IndexSearcher(reader);
+        } else {
+            final IndexSearcher.LeafSlice[] searchSlices = slices(reader.leaves(), minSliceDocs);
+            if (searchSlices.length < 2) {
+                searcher = new IndexSearcher(reader);
+            } else {
+                searcher = new IndexSearcher(reader, executor) {
+                    @Override
+                    protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+                        return searchSlices; // Called from super constructor, so it must be a captured value
+                    }
+                };
+            }
+        }
+        searcher.setSimilarity(new NoIDFSimilarity());
+        searcher.setQueryCache(queryCache);
+        if (cachingPolicy != null) {
+            searcher.setQueryCachingPolicy(cachingPolicy);
+        }
+        return searcher;
+    }
+
+    /**
+     * Returns the specified index segments grouped in slices having at least the specified number of documents. The
+     * biggest segments are assigned first, and the remaining small segments are added to the last slice.
+     *
+     * @param leaves       The index segments.
+     * @param minSliceDocs The min number of documents of each slice.
+     * @return The slices grouping {@code leaves}.
+     */
+    static IndexSearcher.LeafSlice[] slices(List<LeafReaderContext> leaves, int minSliceDocs) {
+
+        List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
+        Collections.sort(sortedLeaves, new Comparator<LeafReaderContext>() {
+            @Override
+            public int compare(LeafReaderContext o1, LeafReaderContext o2) {
+                return Integer.compare(o2.reader().maxDoc(), o1.reader().maxDoc());
+            }
+        });
+
+        List<List<LeafReaderContext>> groups = new ArrayList<>();
+        List<LeafReaderContext> group = new ArrayList<>();
+        long groupDocs = 0;
+        for (LeafReaderContext leaf : sortedLeaves) {
+            group.add(leaf);
+            groupDocs += leaf.reader().maxDoc();
+            if (groupDocs >= minSliceDocs) {
+                groups.add(group);
+                group = new ArrayList<>();
+                groupDocs = 0;
+            }
+        }
+        if (groups.isEmpty()) {
+            groups.add(group);
+        } else {
+            groups.get(groups.size() - 1).addAll(group);
+        }
+
+        IndexSearcher.LeafSlice[] slices = new IndexSearcher.LeafSlice[groups.size()];
+        for (int i = 0; i < slices.length; i++) {
+            List<LeafReaderContext> slice = groups.get(i);
+            slices[i] = new IndexSearcher.LeafSlice(slice.toArray(new LeafReaderContext[slice.size()]));
+        }
+        return slices;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("executor", executor).add("minSliceDocs", minSliceDocs).toString();
+    }
+}
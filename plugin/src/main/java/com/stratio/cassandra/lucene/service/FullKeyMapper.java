@@ -15,6 +15,7 @@
  */
 package com.stratio.cassandra.lucene.service;
 
+import com.stratio.cassandra.lucene.util.BinaryTokenStream;
 import com.stratio.cassandra.lucene.util.ByteBufferUtils;
 import org.apache.cassandra.db.DecoratedKey;
 import org.apache.cassandra.db.composites.CellName;
@@ -22,9 +23,8 @@ import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.db.marshal.CompositeType;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
-import org.apache.lucene.document.Field.Store;
-import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.util.BytesRef;
 
 import java.nio.ByteBuffer;
 
@@ -88,8 +88,8 @@ public class FullKeyMapper {
      */
     public void addFields(Document document, DecoratedKey partitionKey, CellName clusteringKey) {
         ByteBuffer fullKey = byteBuffer(partitionKey, clusteringKey);
-        String string = ByteBufferUtils.toString(fullKey);
-        Field field = new StringField(FIELD_NAME, string, Store.NO);
+        BytesRef bytesRef = ByteBufferUtils.bytesRef(fullKey);
+        Field field = new Field(FIELD_NAME, new BinaryTokenStream(bytesRef), BinaryTokenStream.FIELD_TYPE);
         document.add(field);
     }
 
@@ -103,7 +103,7 @@ public class FullKeyMapper {
      */
     public Term term(DecoratedKey partitionKey, CellName clusteringKey) {
         ByteBuffer fullKey = byteBuffer(partitionKey, clusteringKey);
-        return new Term(FIELD_NAME, ByteBufferUtils.toString(fullKey));
+        return new Term(FIELD_NAME, ByteBufferUtils.bytesRef(fullKey));
     }
 
 }
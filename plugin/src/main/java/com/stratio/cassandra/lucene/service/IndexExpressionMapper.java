@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.stratio.cassandra.lucene.query.Condition;
+import com.stratio.cassandra.lucene.query.MatchCondition;
+import com.stratio.cassandra.lucene.query.RangeCondition;
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.DoubleMapper;
+import com.stratio.cassandra.lucene.schema.mapping.FloatMapper;
+import com.stratio.cassandra.lucene.schema.mapping.IntegerMapper;
+import com.stratio.cassandra.lucene.schema.mapping.LongMapper;
+import com.stratio.cassandra.lucene.schema.mapping.Mapper;
+import com.stratio.cassandra.lucene.schema.mapping.StringMapper;
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.cql3.Operator;
+import org.apache.cassandra.db.IndexExpression;
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.AsciiType;
+import org.apache.cassandra.db.marshal.DoubleType;
+import org.apache.cassandra.db.marshal.FloatType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Class for mapping CQL {@link IndexExpression}s to Lucene {@link Query}s, so they can be satisfied by the Lucene
+ * index instead of by filtering the rows read from Cassandra.
+ * <p/>
+ * An {@link IndexExpression} is only mapped when its column is indexed by a {@link Mapper} with the same name whose
+ * Lucene representation keeps both the equality and the ordering of the CQL type, that is, case sensitive string
+ * mappers over text columns and numeric mappers over columns of the same numeric type.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class IndexExpressionMapper {
+
+    private final CFMetaData metadata;
+    private final Schema schema;
+
+    /**
+     * Returns a new {@link IndexExpressionMapper}.
+     *
+     * @param metadata The indexed column family metadata.
+     * @param schema   The {@link Schema} to be used.
+     */
+    public IndexExpressionMapper(CFMetaData metadata, Schema schema) {
+        this.metadata = metadata;
+        this.schema = schema;
+    }
+
+    /**
+     * Returns a Lucene {@link Query} satisfying all the specified {@link IndexExpression}s that can be mapped, or
+     * {@code null} if none of them can be mapped.
+     *
+     * @param expressions A list of {@link IndexExpression}s.
+     * @return A Lucene {@link Query} satisfying all the mappable {@code expressions}, maybe {@code null}.
+     */
+    public Query query(List<IndexExpression> expressions) {
+        BooleanQuery booleanQuery = null;
+        for (IndexExpression expression : expressions) {
+            Query query = query(expression);
+            if (query != null) {
+                if (booleanQuery == null) {
+                    booleanQuery = new BooleanQuery();
+                }
+                booleanQuery.add(query, BooleanClause.Occur.MUST);
+            }
+        }
+        return booleanQuery;
+    }
+
+    /**
+     * Returns the Lucene {@link Query} satisfying the specified {@link IndexExpression}, or {@code null} if it can't be
+     * mapped.
+     *
+     * @param expression An {@link IndexExpression}.
+     * @return The Lucene {@link Query} satisfying {@code expression}, maybe {@code null}.
+     */
+    public Query query(IndexExpression expression) {
+        ColumnDefinition def = metadata.getColumnDefinition(expression.column);
+        if (def == null) {
+            return null;
+        }
+        return query(def.name.toString(), def.type, expression.operator, expression.value);
+    }
+
+    /**
+     * Returns the Lucene {@link Query} satisfying the specified restriction, or {@code null} if it can't be mapped.
+     *
+     * @param name     The name of the restricted column.
+     * @param type     The type of the restricted column.
+     * @param operator The restriction operator.
+     * @param value    The restriction value.
+     * @return The Lucene {@link Query} satisfying the restriction, maybe {@code null}.
+     */
+    Query query(String name, AbstractType<?> type, Operator operator, ByteBuffer value) {
+        if (value == null || !isMappable(name, type)) {
+            return null;
+        }
+        Object base = type.compose(value);
+        Condition condition = condition(name, operator, base);
+        return condition == null ? null : condition.query(schema);
+    }
+
+    private Condition condition(String name, Operator operator, Object value) {
+        switch (operator) {
+            case EQ:
+                return "".equals(value) ? null : new MatchCondition(null, name, value);
+            case GTE:
+                return new RangeCondition(null, name, value, null, true, false);
+            case GT:
+                return new RangeCondition(null, name, value, null, false, false);
+            case LTE:
+                return new RangeCondition(null, name, null, value, false, true);
+            case LT:
+                return new RangeCondition(null, name, null, value, false, false);
+            default:
+                return null;
+        }
+    }
+
+    private boolean isMappable(String name, AbstractType<?> type) {
+        Mapper mapper = schema.getMapper(name);
+        if (mapper == null || !mapper.getName().equals(name) || !mapper.isIndexed()) {
+            return false;
+        } else if (mapper instanceof StringMapper) {
+            boolean caseSensitive = ((StringMapper) mapper).isCaseSensitive();
+            return caseSensitive && (type instanceof UTF8Type || type instanceof AsciiType);
+        } else if (mapper instanceof IntegerMapper) {
+            return type instanceof Int32Type;
+        } else if (mapper instanceof LongMapper) {
+            return type instanceof LongType;
+        } else if (mapper instanceof FloatMapper) {
+            return type instanceof FloatType;
+        } else if (mapper instanceof DoubleMapper) {
+            return type instanceof DoubleType;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.stratio.cassandra.lucene.util.TaskQueue;
+import org.apache.cassandra.utils.EstimatedHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-index runtime metrics, exposed through {@link LuceneIndexMBean}. All the recording methods are lock-free, so
+ * they can be called from the read and write paths.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class IndexMetrics {
+
+    /** The number of histogram buckets, enough for not overflowing with microseconds. */
+    private static final int BUCKETS = 165;
+
+    private final EstimatedHistogram fetchLatency = new EstimatedHistogram(BUCKETS);
+    private final AtomicLong fetchReadNanos = new AtomicLong();
+    private final AtomicLong fetchWallNanos = new AtomicLong();
+    private final EstimatedHistogram indexingBatchSize = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram indexingQueueLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram indexingBuildLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram indexingApplyLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram searchLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram searchLuceneLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram searchCollectLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram searchSortLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram searchDocs = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram searchRows = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram searchPages = new EstimatedHistogram(BUCKETS);
+    private final AtomicLong searchTotalDocs = new AtomicLong();
+    private final AtomicLong searchTotalRows = new AtomicLong();
+    private final EstimatedHistogram upsertLatency = new EstimatedHistogram(BUCKETS);
+    private final AtomicLong deletes = new AtomicLong();
+    private final EstimatedHistogram readBeforeWriteLatency = new EstimatedHistogram(BUCKETS);
+    private final EstimatedHistogram refreshLatency = new EstimatedHistogram(BUCKETS);
+    private final long startTime = System.nanoTime();
+    private volatile TaskQueue<?> indexingQueue;
+    private volatile SlowSearchLog slowSearchLog = new SlowSearchLog(0);
+
+    /**
+     * Records the retrieval of a page of rows from Cassandra.
+     *
+     * @param wallNanos The elapsed time in nanoseconds to retrieve all the rows of the page.
+     * @param readNanos The sum of the time in nanoseconds spent reading each row of the page.
+     */
+    public void recordFetch(long wallNanos, long readNanos) {
+        fetchLatency.add(TimeUnit.NANOSECONDS.toMicros(wallNanos));
+        fetchWallNanos.addAndGet(wallNanos);
+        fetchReadNanos.addAndGet(readNanos);
+    }
+
+    /**
+     * Returns the number of pages of rows retrieved from Cassandra.
+     *
+     * @return The number of pages of rows retrieved from Cassandra.
+     */
+    public long getFetchPages() {
+        return fetchLatency.count();
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent retrieving a page of rows.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the page retrieval time in microseconds.
+     */
+    public long[] getFetchLatencyMicros() {
+        return percentiles(fetchLatency);
+    }
+
+    /**
+     * Returns the mean effective parallelism of the retrieval of rows from Cassandra, that is, the ratio between the
+     * time spent reading the rows of the pages and the elapsed time for retrieving them.
+     *
+     * @return The mean effective parallelism of the retrieval of rows.
+     */
+    public double getFetchParallelism() {
+        long wallNanos = fetchWallNanos.get();
+        return wallNanos == 0 ? 0 : (double) fetchReadNanos.get() / wallNanos;
+    }
+
+    /**
+     * Records the processing of a batch of asynchronous indexing tasks.
+     *
+     * @param size        The number of tasks in the batch.
+     * @param queuedNanos The time in nanoseconds spent in the queue by the oldest task of the batch.
+     * @param buildNanos  The time in nanoseconds spent building the documents of the batch.
+     * @param applyNanos  The time in nanoseconds spent writing the documents of the batch into the index.
+     */
+    public void recordIndexingBatch(int size, long queuedNanos, long buildNanos, long applyNanos) {
+        indexingBatchSize.add(size);
+        indexingQueueLatency.add(TimeUnit.NANOSECONDS.toMicros(queuedNanos));
+        indexingBuildLatency.add(TimeUnit.NANOSECONDS.toMicros(buildNanos));
+        indexingApplyLatency.add(TimeUnit.NANOSECONDS.toMicros(applyNanos));
+    }
+
+    /**
+     * Returns the number of batches of asynchronous indexing tasks that have been processed.
+     *
+     * @return The number of processed batches of asynchronous indexing tasks.
+     */
+    public long getIndexingBatches() {
+        return indexingBatchSize.count();
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of tasks in the batches of asynchronous indexing
+     * tasks.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the size of the batches of asynchronous indexing tasks.
+     */
+    public long[] getIndexingBatchSize() {
+        return percentiles(indexingBatchSize);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent in the queue by the oldest task
+     * of each batch of asynchronous indexing tasks.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the indexing queue time in microseconds.
+     */
+    public long[] getIndexingQueueLatencyMicros() {
+        return percentiles(indexingQueueLatency);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent building the documents of each
+     * batch of asynchronous indexing tasks, including the reads before write.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the batch building time in microseconds.
+     */
+    public long[] getIndexingBuildLatencyMicros() {
+        return percentiles(indexingBuildLatency);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent writing the documents of each
+     * batch of asynchronous indexing tasks into the index.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the batch writing time in microseconds.
+     */
+    public long[] getIndexingApplyLatencyMicros() {
+        return percentiles(indexingApplyLatency);
+    }
+
+    /**
+     * Records a search, including the time spent in each of its phases.
+     *
+     * @param searchNanos  The total time in nanoseconds spent by the search.
+     * @param luceneNanos  The time in nanoseconds spent searching in Lucene.
+     * @param collectNanos The time in nanoseconds spent collecting and filtering the rows from Cassandra.
+     * @param sortNanos    The time in nanoseconds spent sorting the collected rows.
+     * @param docs         The number of documents scanned in Lucene.
+     * @param rows         The number of rows returned after filtering.
+     * @param pages        The number of pages of documents.
+     */
+    public void recordSearch(long searchNanos,
+                             long luceneNanos,
+                             long collectNanos,
+                             long sortNanos,
+                             int docs,
+                             int rows,
+                             int pages) {
+        searchLatency.add(TimeUnit.NANOSECONDS.toMicros(searchNanos));
+        searchLuceneLatency.add(TimeUnit.NANOSECONDS.toMicros(luceneNanos));
+        searchCollectLatency.add(TimeUnit.NANOSECONDS.toMicros(collectNanos));
+        searchSortLatency.add(TimeUnit.NANOSECONDS.toMicros(sortNanos));
+        searchDocs.add(docs);
+        searchRows.add(rows);
+        searchPages.add(pages);
+        searchTotalDocs.addAndGet(docs);
+        searchTotalRows.addAndGet(rows);
+    }
+
+    /**
+     * Returns the number of searches that have been performed.
+     *
+     * @return The number of performed searches.
+     */
+    public long getSearches() {
+        return searchLatency.count();
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the total time in microseconds spent by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the search time in microseconds.
+     */
+    public long[] getSearchLatencyMicros() {
+        return percentiles(searchLatency);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by each search in Lucene.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the Lucene search time in microseconds.
+     */
+    public long[] getSearchLuceneLatencyMicros() {
+        return percentiles(searchLuceneLatency);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by each search collecting and
+     * filtering the rows from Cassandra.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the row collection time in microseconds.
+     */
+    public long[] getSearchCollectLatencyMicros() {
+        return percentiles(searchCollectLatency);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by each search sorting the
+     * collected rows.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the row sorting time in microseconds.
+     */
+    public long[] getSearchSortLatencyMicros() {
+        return percentiles(searchSortLatency);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of documents scanned in Lucene by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the number of scanned documents.
+     */
+    public long[] getSearchDocs() {
+        return percentiles(searchDocs);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of rows returned by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the number of returned rows.
+     */
+    public long[] getSearchRows() {
+        return percentiles(searchRows);
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of pages of documents read by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the number of pages.
+     */
+    public long[] getSearchPages() {
+        return percentiles(searchPages);
+    }
+
+    /**
+     * Returns the ratio of scanned documents whose rows have been discarded by the post-filtering, because they don't
+     * satisfy the filtering expressions or they are no longer in Cassandra.
+     *
+     * @return The ratio of scanned documents that have been discarded.
+     */
+    public double getSearchRejectionRatio() {
+        long docs = searchTotalDocs.get();
+        return docs == 0 ? 0 : 1 - (double) searchTotalRows.get() / docs;
+    }
+
+    /**
+     * Records the upsert of a document into the index.
+     *
+     * @param nanos The time in nanoseconds spent by the index writer updating the document.
+     */
+    public void recordUpsert(long nanos) {
+        upsertLatency.add(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Records the deletion of the documents matching a term or a query.
+     */
+    public void recordDelete() {
+        deletes.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of documents upserted into the index.
+     *
+     * @return The number of upserted documents.
+     */
+    public long getUpserts() {
+        return upsertLatency.count();
+    }
+
+    /**
+     * Returns the mean number of documents upserted per second since the index has been opened.
+     *
+     * @return The mean number of upserted documents per second.
+     */
+    public double getUpsertsPerSecond() {
+        return rate(getUpserts());
+    }
+
+    /**
+     * Returns the number of deletions by term or query applied to the index.
+     *
+     * @return The number of deletions.
+     */
+    public long getDeletes() {
+        return deletes.get();
+    }
+
+    /**
+     * Returns the mean number of deletions by term or query applied per second since the index has been opened.
+     *
+     * @return The mean number of deletions per second.
+     */
+    public double getDeletesPerSecond() {
+        return rate(getDeletes());
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by the index writer updating
+     * each document.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the document update time in microseconds.
+     */
+    public long[] getUpsertLatencyMicros() {
+        return percentiles(upsertLatency);
+    }
+
+    /**
+     * Records the reading of the stored rows required to index the rows of a partition update.
+     *
+     * @param nanos The time in nanoseconds spent reading the stored rows.
+     */
+    public void recordReadBeforeWrite(long nanos) {
+        readBeforeWriteLatency.add(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent reading the stored rows before
+     * indexing a partition update.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the read before write time in microseconds.
+     */
+    public long[] getReadBeforeWriteLatencyMicros() {
+        return percentiles(readBeforeWriteLatency);
+    }
+
+    /**
+     * Records a refresh of the index readers.
+     *
+     * @param nanos The time in nanoseconds spent refreshing the index readers.
+     */
+    public void recordRefresh(long nanos) {
+        refreshLatency.add(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Returns the number of refreshes of the index readers.
+     *
+     * @return The number of refreshes.
+     */
+    public long getRefreshes() {
+        return refreshLatency.count();
+    }
+
+    /**
+     * Returns the mean number of refreshes of the index readers per second since the index has been opened.
+     *
+     * @return The mean number of refreshes per second.
+     */
+    public double getRefreshesPerSecond() {
+        return rate(getRefreshes());
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent refreshing the index readers.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the refresh time in microseconds.
+     */
+    public long[] getRefreshLatencyMicros() {
+        return percentiles(refreshLatency);
+    }
+
+    /**
+     * Sets the {@link TaskQueue} used for asynchronous indexing, if any.
+     *
+     * @param indexingQueue The asynchronous indexing {@link TaskQueue}.
+     */
+    public void setIndexingQueue(TaskQueue<?> indexingQueue) {
+        this.indexingQueue = indexingQueue;
+    }
+
+    /**
+     * Returns the number of pending asynchronous indexing tasks in each indexing thread queue.
+     *
+     * @return The number of pending tasks in each indexing thread queue.
+     */
+    public long[] getIndexingQueueDepths() {
+        TaskQueue<?> queue = indexingQueue;
+        return queue == null ? new long[0] : queue.getDepths();
+    }
+
+    /**
+     * Returns the total time in milliseconds that writes have been blocked waiting for a full indexing thread queue.
+     *
+     * @return The total time in milliseconds spent waiting for a full indexing thread queue.
+     */
+    public long getIndexingBlockedMillis() {
+        TaskQueue<?> queue = indexingQueue;
+        return queue == null ? 0 : TimeUnit.NANOSECONDS.toMillis(queue.getBlockedNanos());
+    }
+
+    /**
+     * Returns the mean number per second of the specified number of events since the index has been opened.
+     *
+     * @param count A number of events.
+     * @return The mean number of events per second.
+     */
+    private double rate(long count) {
+        long elapsedNanos = System.nanoTime() - startTime;
+        return elapsedNanos <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Sets the {@link SlowSearchLog} where the slow searches are recorded.
+     *
+     * @param slowSearchLog A {@link SlowSearchLog}.
+     */
+    public void setSlowSearchLog(SlowSearchLog slowSearchLog) {
+        this.slowSearchLog = slowSearchLog;
+    }
+
+    /**
+     * Returns the {@link SlowSearchLog} where the slow searches are recorded.
+     *
+     * @return The {@link SlowSearchLog} where the slow searches are recorded.
+     */
+    public SlowSearchLog getSlowSearchLog() {
+        return slowSearchLog;
+    }
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the specified {@link EstimatedHistogram}.
+     *
+     * @param histogram An {@link EstimatedHistogram}.
+     * @return The 50th, 99th and 99.9th percentiles of {@code histogram}.
+     */
+    static long[] percentiles(EstimatedHistogram histogram) {
+        if (histogram.count() == 0 || histogram.isOverflowed()) {
+            return new long[]{0, 0, 0};
+        }
+        return new long[]{histogram.percentile(0.5), histogram.percentile(0.99), histogram.percentile(0.999)};
+    }
+}
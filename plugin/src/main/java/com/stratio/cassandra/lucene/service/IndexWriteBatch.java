@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Buffer of the writes to a {@link LuceneIndex} generated by a batch of indexing tasks, to be applied all together in
+ * a single pass. The writes of the same {@link Term} are coalesced, so only the last one is applied. The writes that
+ * could affect the documents of the buffered ones, such as deletions by {@link Query} or by a {@link Term} of another
+ * field, apply the buffered writes first, so the order of the writes is preserved.
+ * <p/>
+ * This class is not thread safe, each indexing thread has its own buffer.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+class IndexWriteBatch {
+
+    private final LuceneIndex luceneIndex;
+    private final Map<Term, Write> writes = new LinkedHashMap<>();
+    private String field;
+
+    /**
+     * Returns a new empty {@link IndexWriteBatch} for the specified {@link LuceneIndex}.
+     *
+     * @param luceneIndex The index where the writes are going to be applied.
+     */
+    IndexWriteBatch(LuceneIndex luceneIndex) {
+        this.luceneIndex = luceneIndex;
+    }
+
+    /**
+     * Buffers the upsert of the specified {@link Document} in the specified shard.
+     *
+     * @param shard    The index of the shard containing the document.
+     * @param term     The {@link Term} to identify the document(s) to be replaced.
+     * @param document The {@link Document} to be added.
+     * @throws IOException If Lucene throws IO errors applying the previously buffered writes.
+     */
+    void upsert(int shard, Term term, Document document) throws IOException {
+        add(term, new Write(shard, document));
+    }
+
+    /**
+     * Buffers the deletion of the {@link Document}s containing the specified {@link Term} in the specified shard.
+     *
+     * @param shard The index of the shard containing the documents.
+     * @param term  The {@link Term} to identify the documents to be deleted.
+     * @throws IOException If Lucene throws IO errors applying the previously buffered writes.
+     */
+    void delete(int shard, Term term) throws IOException {
+        add(term, new Write(shard, null));
+    }
+
+    /**
+     * Deletes the {@link Document}s satisfying the specified {@link Query} in the specified shard, after applying the
+     * buffered writes.
+     *
+     * @param shard The index of the shard containing the documents.
+     * @param query The {@link Query} to identify the documents to be deleted.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    void delete(int shard, Query query) throws IOException {
+        apply();
+        luceneIndex.delete(shard, query);
+    }
+
+    private void add(Term term, Write write) throws IOException {
+        if (field != null && !field.equals(term.field())) {
+            apply();
+        }
+        field = term.field();
+        writes.put(term, write);
+    }
+
+    /**
+     * Applies the buffered writes to the {@link LuceneIndex}, leaving this buffer empty.
+     *
+     * @throws IOException If Lucene throws IO errors.
+     */
+    void apply() throws IOException {
+        for (Map.Entry<Term, Write> entry : writes.entrySet()) {
+            Term term = entry.getKey();
+            Write write = entry.getValue();
+            if (write.document == null) {
+                luceneIndex.delete(write.shard, term);
+            } else {
+                luceneIndex.upsert(write.shard, term, write.document);
+            }
+        }
+        writes.clear();
+        field = null;
+    }
+
+    /** A buffered upsert, or deletion if there is no document. */
+    private static class Write {
+
+        private final int shard;
+        private final Document document;
+
+        Write(int shard, Document document) {
+            this.shard = shard;
+            this.document = document;
+        }
+    }
+}
@@ -16,20 +16,14 @@
 package com.stratio.cassandra.lucene.service;
 
 import com.stratio.cassandra.lucene.util.Log;
+import org.apache.cassandra.concurrent.DebuggableThreadPoolExecutor;
 import org.apache.cassandra.io.util.FileUtils;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
-import org.apache.lucene.index.SortingMergePolicy;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.index.TieredMergePolicy;
-import org.apache.lucene.index.TrackingIndexWriter;
 import org.apache.lucene.search.*;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
-import org.apache.lucene.store.NRTCachingDirectory;
 
 import javax.management.MBeanException;
 import javax.management.ObjectName;
@@ -37,9 +31,12 @@ import javax.management.OperationsException;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Path;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class wrapping a Lucene directory and its readers, writers and searchers for NRT.
@@ -48,22 +45,32 @@ import java.util.Set;
  */
 public class LuceneIndex implements LuceneIndexMBean {
 
+    /** The max number of distinct filters whose per-segment matches can be cached. */
+    private static final int MAX_CACHED_FILTERS = 1000;
+
     private final String keyspace;
     private final String table;
     private final String name;
     private final Path path;
+    private final String directoryType;
+    private final Double minRefreshSeconds;
     private final Double refreshSeconds;
     private final Integer ramBufferMB;
     private final Integer maxMergeMB;
     private final Integer maxCachedMB;
     private final Analyzer analyzer;
+    private final SearchCache searchCache;
+    private final ResultCache resultCache;
+    private final LRUQueryCache filterCache;
+    private final QueryCachingPolicy filterCachingPolicy;
+    private final Integer searchThreads;
+    private final Integer minSliceDocs;
+    private final IndexMetrics metrics;
     private final String logName;
 
-    private Directory directory;
-    private IndexWriter indexWriter;
-    private SearcherManager searcherManager;
-    private ControlledRealTimeReopenThread<IndexSearcher> searcherReopener;
-    private SortingMergePolicy sortingMergePolicy;
+    private final LuceneIndexShard[] shards;
+
+    private ExecutorService searchExecutor;
 
     private Sort sort;
     private ObjectName objectName;
@@ -75,37 +82,102 @@ public class LuceneIndex implements LuceneIndexMBean {
     /**
      * Builds a new {@code RowDirectory} using the specified directory path and analyzer.
      *
-     * @param keyspace       The keyspace name.
-     * @param table          The table name.
-     * @param name           The index name.
-     * @param path           The analyzer to be used. The path of the directory in where the Lucene files will be
-     *                       stored.
-     * @param refreshSeconds The index readers refresh time in seconds. No guarantees that the writings are visible
-     *                       until this time.
-     * @param ramBufferMB    The index writer buffer size in MB.
-     * @param maxMergeMB     NRTCachingDirectory max merge size in MB.
-     * @param maxCachedMB    NRTCachingDirectory max cached MB.
-     * @param analyzer       The default {@link Analyzer}.
+     * @param keyspace          The keyspace name.
+     * @param table             The table name.
+     * @param name              The index name.
+     * @param path              The analyzer to be used. The path of the directory in where the Lucene files will be
+     *                          stored.
+     * @param directoryType     The type of the Lucene directory, that is, {@code fs}, {@code mmap}, {@code nio} or
+     *                          {@code ram}.
+     * @param minRefreshSeconds The min time in seconds between refreshes of the index readers.
+     * @param refreshSeconds    The max time in seconds before refreshing the index readers after a write. No
+     *                          guarantees that the writings are visible until this time.
+     * @param ramBufferMB       The index writer buffer size in MB.
+     * @param maxMergeMB        NRTCachingDirectory max merge size in MB.
+     * @param maxCachedMB       NRTCachingDirectory max cached MB.
+     * @param searchCacheSize   The max number of cached {@link CompiledSearch}s.
+     * @param resultCacheMB     The max size in MB of the cached {@link SearchResult}s.
+     * @param filterCacheMB     The max size in MB of the cached per-segment matches of filters, 0 means no caching.
+     * @param searchThreads     The number of threads for searching the index segments concurrently, 0 means
+     *                          single-threaded searches.
+     * @param minSliceDocs      The min number of documents of each group of index segments searched by a thread.
+     * @param numShards         The number of shards, each one stored in its own directory and having its own writer.
+     * @param analyzer          The default {@link Analyzer}.
      */
     public LuceneIndex(String keyspace,
                        String table,
                        String name,
                        Path path,
+                       String directoryType,
+                       Double minRefreshSeconds,
                        Double refreshSeconds,
                        Integer ramBufferMB,
                        Integer maxMergeMB,
                        Integer maxCachedMB,
+                       Integer searchCacheSize,
+                       Integer resultCacheMB,
+                       Integer filterCacheMB,
+                       Integer searchThreads,
+                       Integer minSliceDocs,
+                       Integer numShards,
                        Analyzer analyzer) {
         this.keyspace = keyspace;
         this.table = table;
         this.name = name;
         this.path = path;
+        this.directoryType = directoryType;
+        this.minRefreshSeconds = minRefreshSeconds;
         this.refreshSeconds = refreshSeconds;
         this.ramBufferMB = ramBufferMB;
         this.maxMergeMB = maxMergeMB;
         this.maxCachedMB = maxCachedMB;
         this.analyzer = analyzer;
+        this.resultCache = new ResultCache(resultCacheMB);
+        this.searchCache = new SearchCache(searchCacheSize);
+        if (filterCacheMB > 0) {
+            this.filterCache = new LRUQueryCache(MAX_CACHED_FILTERS, filterCacheMB * 1024L * 1024L);
+            this.filterCachingPolicy = new UsageTrackingQueryCachingPolicy();
+        } else {
+            this.filterCache = null;
+            this.filterCachingPolicy = null;
+        }
+        this.searchThreads = searchThreads;
+        this.minSliceDocs = minSliceDocs;
+        this.metrics = new IndexMetrics();
         this.logName = String.format("Lucene index %s.%s.%s", keyspace, table, name);
+        this.shards = new LuceneIndexShard[numShards];
+        for (int i = 0; i < numShards; i++) {
+            Path shardPath = numShards == 1 ? path : path.resolve(String.format("shard%d", i));
+            String shardLogName = numShards == 1 ? logName : String.format("%s shard %d", logName, i);
+            shards[i] = new LuceneIndexShard(shardPath, directoryType, shardLogName, metrics);
+        }
+    }
+
+    /**
+     * Returns the {@link SearchCache} of this index.
+     *
+     * @return The {@link SearchCache} of this index.
+     */
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    /**
+     * Returns the {@link ResultCache} of this index.
+     *
+     * @return The {@link ResultCache} of this index.
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Returns the {@link IndexMetrics} of this index.
+     *
+     * @return The {@link IndexMetrics} of this index.
+     */
+    public IndexMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -118,35 +190,38 @@ public class LuceneIndex implements LuceneIndexMBean {
         Log.debug("Initializing index");
         this.sort = sort;
 
-        // Open or create directory
-        FSDirectory fsDirectory = FSDirectory.open(path);
-        directory = new NRTCachingDirectory(fsDirectory, maxMergeMB, maxCachedMB);
-
-        sortingMergePolicy = new SortingMergePolicy(new TieredMergePolicy(), sort);
-
-        // Setup index writer
-        IndexWriterConfig config = new IndexWriterConfig(analyzer);
-        config.setRAMBufferSizeMB(ramBufferMB);
-        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
-        config.setUseCompoundFile(true);
-        config.setMergePolicy(sortingMergePolicy);
-        indexWriter = new IndexWriter(directory, config);
-
-        // Setup NRT search
-        SearcherFactory searcherFactory = new SearcherFactory() {
-            public IndexSearcher newSearcher(IndexReader reader) throws IOException {
-                IndexSearcher searcher = new IndexSearcher(reader);
-                searcher.setSimilarity(new NoIDFSimilarity());
-                return searcher;
+        // Setup shards
+        if (searchThreads > 0) {
+            String executorName = String.format("LuceneSearch-%s.%s", keyspace, name);
+            searchExecutor = DebuggableThreadPoolExecutor.createWithFixedPoolSize(executorName, searchThreads);
+        }
+        SearcherFactory searcherFactory = new ConcurrentSearcherFactory(searchExecutor,
+                                                                       minSliceDocs,
+                                                                       filterCache,
+                                                                       filterCachingPolicy);
+        ReferenceManager.RefreshListener refreshListener = new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+            }
+
+            @Override
+            public void afterRefresh(boolean didRefresh) {
+                if (didRefresh) {
+                    resultCache.invalidate(); // The cached results are from the previous readers
+                }
             }
         };
-        TrackingIndexWriter trackingIndexWriter = new TrackingIndexWriter(indexWriter);
-        searcherManager = new SearcherManager(indexWriter, true, searcherFactory);
-        searcherReopener = new ControlledRealTimeReopenThread<>(trackingIndexWriter,
-                                                                searcherManager,
-                                                                refreshSeconds,
-                                                                refreshSeconds);
-        searcherReopener.start(); // Start the refresher thread
+        for (LuceneIndexShard shard : shards) {
+            shard.init(sort,
+                       analyzer,
+                       minRefreshSeconds,
+                       refreshSeconds,
+                       ramBufferMB,
+                       maxMergeMB,
+                       maxCachedMB,
+                       searcherFactory);
+            shard.addRefreshListener(refreshListener);
+        }
 
         // Register JMX MBean
         try {
@@ -161,40 +236,111 @@ public class LuceneIndex implements LuceneIndexMBean {
         }
     }
 
+    /**
+     * Returns if the documents of this index have been discarded during initialization because they were written with
+     * an outdated format, so the index should be rebuilt.
+     *
+     * @return {@code true} if this index should be rebuilt, {@code false} otherwise.
+     */
+    public boolean needsRebuild() {
+        for (LuceneIndexShard shard : shards) {
+            if (shard.needsRebuild()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of shards of this index.
+     *
+     * @return The number of shards of this index.
+     */
+    public int getNumShards() {
+        return shards.length;
+    }
+
     /**
      * Updates the specified {@link Document} by first deleting the documents containing {@code Term} and then adding
      * the new document. The delete and then add are atomic as seen by a reader on the same index (flush may happen only
-     * after the add).
+     * after the add). This can only be used with indexes having a single shard.
      *
      * @param term     The {@link Term} to identify the document(s) to be deleted.
      * @param document The {@link Document} to be added.
      * @throws IOException If Lucene throws IO errors.
      */
     public void upsert(Term term, Document document) throws IOException {
-        Log.debug("%s update document %s with term %s", logName, document, term);
-        indexWriter.updateDocument(term, document);
+        if (shards.length > 1) {
+            throw new IllegalStateException("A shard is required for upserting in sharded indexes");
+        }
+        upsert(0, term, document);
     }
 
     /**
-     * Deletes all the {@link Document}s containing the specified {@link Term}.
+     * Updates the specified {@link Document} in the specified shard by first deleting the documents containing {@code
+     * Term} and then adding the new document. The delete and then add are atomic as seen by a reader on the same index
+     * (flush may happen only after the add).
+     *
+     * @param shard    The index of the shard containing the document.
+     * @param term     The {@link Term} to identify the document(s) to be deleted.
+     * @param document The {@link Document} to be added.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void upsert(int shard, Term term, Document document) throws IOException {
+        Log.debug("%s update document %s with term %s", shards[shard], document, term);
+        long startTime = System.nanoTime();
+        shards[shard].upsert(term, document);
+        metrics.recordUpsert(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Deletes all the {@link Document}s containing the specified {@link Term} in all the shards.
      *
      * @param term The {@link Term} to identify the documents to be deleted.
      * @throws IOException If Lucene throws IO errors.
      */
     public void delete(Term term) throws IOException {
-        Log.debug(String.format("%s delete by term %s", logName, term));
-        indexWriter.deleteDocuments(term);
+        for (int shard = 0; shard < shards.length; shard++) {
+            delete(shard, term);
+        }
     }
 
     /**
-     * Deletes all the {@link Document}s satisfying the specified {@link Query}.
+     * Deletes all the {@link Document}s containing the specified {@link Term} in the specified shard.
+     *
+     * @param shard The index of the shard containing the documents.
+     * @param term  The {@link Term} to identify the documents to be deleted.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void delete(int shard, Term term) throws IOException {
+        Log.debug("%s delete by term %s", shards[shard], term);
+        shards[shard].delete(term);
+        metrics.recordDelete();
+    }
+
+    /**
+     * Deletes all the {@link Document}s satisfying the specified {@link Query} in all the shards.
      *
      * @param query The {@link Query} to identify the documents to be deleted.
      * @throws IOException If Lucene throws IO errors.
      */
     public void delete(Query query) throws IOException {
-        Log.debug("%s deleting by query %s", logName, query);
-        indexWriter.deleteDocuments(query);
+        for (int shard = 0; shard < shards.length; shard++) {
+            delete(shard, query);
+        }
+    }
+
+    /**
+     * Deletes all the {@link Document}s satisfying the specified {@link Query} in the specified shard.
+     *
+     * @param shard The index of the shard containing the documents.
+     * @param query The {@link Query} to identify the documents to be deleted.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void delete(int shard, Query query) throws IOException {
+        Log.debug("%s deleting by query %s", shards[shard], query);
+        shards[shard].delete(query);
+        metrics.recordDelete();
     }
 
     /**
@@ -203,7 +349,9 @@ public class LuceneIndex implements LuceneIndexMBean {
      * @throws IOException If Lucene throws IO errors.
      */
     public void truncate() throws IOException {
-        indexWriter.deleteAll();
+        for (LuceneIndexShard shard : shards) {
+            shard.truncate();
+        }
         Log.info("%s truncated", logName);
     }
 
@@ -214,7 +362,9 @@ public class LuceneIndex implements LuceneIndexMBean {
      */
     @Override
     public void commit() throws IOException {
-        indexWriter.commit();
+        for (LuceneIndexShard shard : shards) {
+            shard.commit();
+        }
         Log.info("%s committed", logName);
     }
 
@@ -224,10 +374,16 @@ public class LuceneIndex implements LuceneIndexMBean {
      * @throws IOException If Lucene throws IO errors.
      */
     public void close() throws IOException {
-        searcherReopener.interrupt();
-        searcherManager.close();
-        indexWriter.close();
-        directory.close();
+        for (LuceneIndexShard shard : shards) {
+            shard.close();
+        }
+        resultCache.invalidate();
+        if (filterCache != null) {
+            filterCache.clear();
+        }
+        if (searchExecutor != null) {
+            searchExecutor.shutdown();
+        }
         try {
             ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
         } catch (MBeanException | OperationsException e) {
@@ -248,60 +404,187 @@ public class LuceneIndex implements LuceneIndexMBean {
     }
 
     /**
-     * Finds the top {@code count} hits for {@code query}, applying {@code clusteringKeyFilter} if non-null, and sorting
-     * the hits by the criteria in {@code sortFields}.
+     * Finds the top {@code count} hits for {@code query} in the specified shards, sorting the hits by the criteria in
+     * {@code sortFields}, and returns them as {@link SearchResult}s built with the specified {@link RowMapper}. The
+     * primary keys of the hits are read from doc values, so no {@link Document}s are loaded. The results are cached in
+     * the {@link ResultCache} until the index readers are refreshed, so the repetitions of the same search don't hit
+     * Lucene.
      *
-     * @param query        The {@link Query} to search for.
-     * @param sort         The {@link Sort} to be applied.
-     * @param after        The starting {@link SearchResult}.
-     * @param count        Return only the top {@code count} results.
-     * @param fieldsToLoad The name of the fields to be loaded.
-     * @return The found documents, sorted according to the supplied {@link Sort} instance.
+     * @param query         The {@link Query} to search for.
+     * @param sort          The {@link Sort} to be applied.
+     * @param after         The starting {@link SearchResult}.
+     * @param count         Return only the top {@code count} results.
+     * @param usesRelevance If the search uses relevance.
+     * @param rowMapper     The {@link RowMapper} to be used for reading the primary keys.
+     * @param shards        The indexes of the shards to be searched, {@code null} means all the shards.
+     * @return The found {@link SearchResult}s, sorted according to the supplied {@link Sort} instance.
      * @throws IOException If Lucene throws IO errors.
      */
-    public Map<Document, ScoreDoc> search(Query query,
-                                          Sort sort,
-                                          ScoreDoc after,
-                                          Integer count,
-                                          Set<String> fieldsToLoad,
-                                          boolean usesRelevance) throws IOException {
+    public List<SearchResult> search(Query query,
+                                     Sort sort,
+                                     ScoreDoc after,
+                                     Integer count,
+                                     boolean usesRelevance,
+                                     RowMapper rowMapper,
+                                     BitSet shards) throws IOException {
         Log.debug("%s search by query %s", logName, query);
-        IndexSearcher searcher = searcherManager.acquire();
+        if (shards == null) {
+            shards = new BitSet();
+            shards.set(0, this.shards.length);
+        }
+        IndexSearcher[] searchers = acquire();
         try {
-            // Search
-            ScoreDoc start = after == null ? null : after;
-            TopDocs topDocs = topDocs(searcher, query, sort, start, count, usesRelevance);
-            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
-
-            // Collect the documents from query result
-            Map<Document, ScoreDoc> searchResults = new LinkedHashMap<>();
-            for (ScoreDoc scoreDoc : scoreDocs) {
-                Document document = searcher.doc(scoreDoc.doc, fieldsToLoad);
-                searchResults.put(document, scoreDoc);
+            // Skip the Lucene search if it has been already done with the same readers
+            ResultCache.Key key = null;
+            if (resultCache.isEnabled()) {
+                key = new ResultCache.Key(query, sort, after, count, usesRelevance, (BitSet) shards.clone(),
+                                          versions(searchers));
+                List<SearchResult> searchResults = resultCache.get(key);
+                if (searchResults != null) {
+                    return searchResults;
+                }
             }
-
-            return searchResults;
+            List<SearchResult> searchResults = searchResults(searchers,
+                                                             query,
+                                                             sort,
+                                                             after,
+                                                             count,
+                                                             usesRelevance,
+                                                             rowMapper,
+                                                             shards);
+            return key == null ? searchResults : resultCache.put(key, searchResults);
         } finally {
-            searcherManager.release(searcher);
+            release(searchers);
         }
     }
 
-    private TopDocs topDocs(IndexSearcher searcher,
+    private List<SearchResult> searchResults(IndexSearcher[] searchers,
+                                             Query query,
+                                             Sort sort,
+                                             ScoreDoc after,
+                                             int count,
+                                             boolean usesRelevance,
+                                             RowMapper rowMapper,
+                                             BitSet shards) throws IOException {
+        ScoreDoc[] scoreDocs = topDocs(searchers, shards, query, sort, after, count, usesRelevance).scoreDocs;
+        if (shards.cardinality() == 1) {
+            IndexReader reader = searchers[shards.nextSetBit(0)].getIndexReader();
+            return rowMapper.searchResults(reader, scoreDocs);
+        }
+
+        // Read the keys of each shard hits, keeping the merged order
+        SearchResult[] searchResults = new SearchResult[scoreDocs.length];
+        for (int shard = shards.nextSetBit(0); shard >= 0; shard = shards.nextSetBit(shard + 1)) {
+            List<Integer> positions = new ArrayList<>();
+            List<ScoreDoc> shardScoreDocs = new ArrayList<>();
+            for (int i = 0; i < scoreDocs.length; i++) {
+                if (scoreDocs[i].shardIndex == shard) {
+                    positions.add(i);
+                    shardScoreDocs.add(scoreDocs[i]);
+                }
+            }
+            if (!positions.isEmpty()) {
+                IndexReader reader = searchers[shard].getIndexReader();
+                ScoreDoc[] hits = shardScoreDocs.toArray(new ScoreDoc[shardScoreDocs.size()]);
+                List<SearchResult> shardSearchResults = rowMapper.searchResults(reader, hits);
+                for (int i = 0; i < positions.size(); i++) {
+                    searchResults[positions.get(i)] = shardSearchResults.get(i);
+                }
+            }
+        }
+        return Arrays.asList(searchResults);
+    }
+
+    /**
+     * Returns the versions of the index readers of the specified {@link IndexSearcher}s, which change each time that a
+     * reader is refreshed with new changes.
+     */
+    private static long[] versions(IndexSearcher[] searchers) {
+        long[] versions = new long[searchers.length];
+        for (int shard = 0; shard < searchers.length; shard++) {
+            versions[shard] = ((DirectoryReader) searchers[shard].getIndexReader()).getVersion();
+        }
+        return versions;
+    }
+
+    /**
+     * Returns the merged top {@code count} hits for {@code query} in the specified shards. The {@link
+     * ScoreDoc#shardIndex} of each hit is the index of the shard containing it.
+     */
+    private TopDocs topDocs(IndexSearcher[] searchers,
+                            BitSet shards,
                             Query query,
                             Sort sort,
                             ScoreDoc after,
                             int count,
                             boolean usesRelevance) throws IOException {
-        if (sort != null) {
-            return searcher.searchAfter(after, query, count, sort);
-        } else if (usesRelevance) {
-            return searcher.searchAfter(after, query, count);
+        Sort mergeSort = sort == null && !usesRelevance ? this.sort : sort;
+        TopDocs[] shardHits = mergeSort == null ? new TopDocs[searchers.length] : new TopFieldDocs[searchers.length];
+        int numSearchedShards = 0;
+        for (int shard = 0; shard < searchers.length; shard++) {
+            if (shards.get(shard)) {
+                ScoreDoc shardAfter = after(after, shard);
+                IndexSearcher searcher = searchers[shard];
+                TopDocs topDocs = this.shards[shard].topDocs(searcher, query, sort, shardAfter, count, usesRelevance);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    scoreDoc.shardIndex = shard;
+                }
+                shardHits[shard] = topDocs;
+                numSearchedShards++;
+            } else if (mergeSort == null) {
+                shardHits[shard] = new TopDocs(0, new ScoreDoc[0], Float.NaN);
+            } else {
+                shardHits[shard] = new TopFieldDocs(0, new ScoreDoc[0], mergeSort.getSort(), Float.NaN);
+            }
+        }
+        if (numSearchedShards == 1) {
+            return shardHits[shards.nextSetBit(0)];
+        } else if (mergeSort == null) {
+            return TopDocs.merge(count, shardHits);
         } else {
-            FieldDoc start = after == null ? null : (FieldDoc) after;
-            TopFieldCollector tfc = TopFieldCollector.create(this.sort, count, start, true, false, false);
-            Collector collector = new EarlyTerminatingSortingCollector(tfc, this.sort, count, sortingMergePolicy);
-            searcher.search(query, collector);
-            return tfc.topDocs();
+            return TopDocs.merge(mergeSort, count, (TopFieldDocs[]) shardHits);
+        }
+    }
+
+    /**
+     * Returns the {@link ScoreDoc} to be used as the paging start in the specified shard. Hits with the same sort
+     * values are ordered by shard and then by document, so the hits of a shard previous to the one of {@code after}
+     * tying with it have already been returned, and the ones of a following shard have not.
+     *
+     * @param after The last returned {@link ScoreDoc}, maybe {@code null}.
+     * @param shard The index of a shard.
+     * @return The paging start in {@code shard}.
+     */
+    private ScoreDoc after(ScoreDoc after, int shard) {
+        if (after == null || shards.length == 1 || after.shardIndex == shard) {
+            return after;
+        }
+        int doc = shard < after.shardIndex ? Integer.MAX_VALUE : -1;
+        if (after instanceof FieldDoc) {
+            return new FieldDoc(doc, after.score, ((FieldDoc) after).fields, after.shardIndex);
+        } else {
+            return new ScoreDoc(doc, after.score, after.shardIndex);
+        }
+    }
+
+    private IndexSearcher[] acquire() throws IOException {
+        IndexSearcher[] searchers = new IndexSearcher[shards.length];
+        try {
+            for (int shard = 0; shard < shards.length; shard++) {
+                searchers[shard] = shards[shard].acquire();
+            }
+        } catch (IOException e) {
+            release(searchers);
+            throw e;
+        }
+        return searchers;
+    }
+
+    private void release(IndexSearcher[] searchers) throws IOException {
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (searchers[shard] != null) {
+                shards[shard].release(searchers[shard]);
+            }
         }
     }
 
@@ -314,12 +597,11 @@ public class LuceneIndex implements LuceneIndexMBean {
     @Override
     public long getNumDocs() throws IOException {
         Log.debug("%s get num docs", logName);
-        IndexSearcher searcher = searcherManager.acquire();
-        try {
-            return searcher.getIndexReader().numDocs();
-        } finally {
-            searcherManager.release(searcher);
+        long numDocs = 0;
+        for (LuceneIndexShard shard : shards) {
+            numDocs += shard.getNumDocs();
         }
+        return numDocs;
     }
 
     /**
@@ -331,27 +613,27 @@ public class LuceneIndex implements LuceneIndexMBean {
     @Override
     public long getNumDeletedDocs() throws IOException {
         Log.debug("%s get num deleted docs", logName);
-        IndexSearcher searcher = searcherManager.acquire();
-        try {
-            return searcher.getIndexReader().numDeletedDocs();
-        } finally {
-            searcherManager.release(searcher);
+        long numDeletedDocs = 0;
+        for (LuceneIndexShard shard : shards) {
+            numDeletedDocs += shard.getNumDeletedDocs();
         }
+        return numDeletedDocs;
     }
 
     /**
-     * Optimizes the index forcing merge segments leaving the specified number of segments. This operation may block
-     * until all merging completes.
+     * Optimizes the index forcing merge segments leaving the specified number of segments per shard. This operation
+     * may block until all merging completes.
      *
-     * @param maxNumSegments The maximum number of segments left in the index after merging finishes.
+     * @param maxNumSegments The maximum number of segments left in each shard after merging finishes.
      * @param doWait         {@code true} if the call should block until the operation completes.
      * @throws IOException If Lucene throws IO errors.
      */
     @Override
     public void forceMerge(int maxNumSegments, boolean doWait) throws IOException {
         Log.info("%s merging index segments to %d", logName, maxNumSegments);
-        indexWriter.forceMerge(maxNumSegments, doWait);
-        indexWriter.commit();
+        for (LuceneIndexShard shard : shards) {
+            shard.forceMerge(maxNumSegments, doWait);
+        }
         Log.info("%s segments merge completed", logName);
     }
 
@@ -365,17 +647,349 @@ public class LuceneIndex implements LuceneIndexMBean {
     @Override
     public void forceMergeDeletes(boolean doWait) throws IOException {
         Log.info("%s merging index segments with deletions", logName);
-        indexWriter.forceMergeDeletes(doWait);
-        indexWriter.commit();
+        for (LuceneIndexShard shard : shards) {
+            shard.forceMergeDeletes(doWait);
+        }
         Log.info("%s merging index segments with deletions completed", logName);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public long getSearchCacheSize() {
+        return searchCache.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSearchCacheHits() {
+        return searchCache.getHits();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSearchCacheMisses() {
+        return searchCache.getMisses();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSearchCacheEvictions() {
+        return searchCache.getEvictions();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getResultCacheSize() {
+        return resultCache.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getResultCacheHits() {
+        return resultCache.getHits();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getResultCacheMisses() {
+        return resultCache.getMisses();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getResultCacheEvictions() {
+        return resultCache.getEvictions();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFilterCacheSize() {
+        return filterCache == null ? 0 : filterCache.getCacheSize();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFilterCacheBytes() {
+        return filterCache == null ? 0 : filterCache.ramBytesUsed();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFilterCacheHits() {
+        return filterCache == null ? 0 : filterCache.getHitCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFilterCacheMisses() {
+        return filterCache == null ? 0 : filterCache.getMissCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFilterCacheEvictions() {
+        return filterCache == null ? 0 : filterCache.getEvictionCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFetchPages() {
+        return metrics.getFetchPages();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getFetchLatencyMicros() {
+        return metrics.getFetchLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getFetchParallelism() {
+        return metrics.getFetchParallelism();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getIndexingBatches() {
+        return metrics.getIndexingBatches();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getIndexingBatchSize() {
+        return metrics.getIndexingBatchSize();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getIndexingQueueLatencyMicros() {
+        return metrics.getIndexingQueueLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getIndexingBuildLatencyMicros() {
+        return metrics.getIndexingBuildLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getIndexingApplyLatencyMicros() {
+        return metrics.getIndexingApplyLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSearches() {
+        return metrics.getSearches();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getSearchLatencyMicros() {
+        return metrics.getSearchLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getSearchLuceneLatencyMicros() {
+        return metrics.getSearchLuceneLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getSearchCollectLatencyMicros() {
+        return metrics.getSearchCollectLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getSearchSortLatencyMicros() {
+        return metrics.getSearchSortLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getSearchDocs() {
+        return metrics.getSearchDocs();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getSearchRows() {
+        return metrics.getSearchRows();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getSearchPages() {
+        return metrics.getSearchPages();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getSearchRejectionRatio() {
+        return metrics.getSearchRejectionRatio();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getUpserts() {
+        return metrics.getUpserts();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getUpsertsPerSecond() {
+        return metrics.getUpsertsPerSecond();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getDeletes() {
+        return metrics.getDeletes();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getDeletesPerSecond() {
+        return metrics.getDeletesPerSecond();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getUpsertLatencyMicros() {
+        return metrics.getUpsertLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getReadBeforeWriteLatencyMicros() {
+        return metrics.getReadBeforeWriteLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getRefreshes() {
+        return metrics.getRefreshes();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getRefreshesPerSecond() {
+        return metrics.getRefreshesPerSecond();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getRefreshLatencyMicros() {
+        return metrics.getRefreshLatencyMicros();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getIndexingQueueDepths() {
+        return metrics.getIndexingQueueDepths();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getIndexingBlockedMillis() {
+        return metrics.getIndexingBlockedMillis();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getRAMBufferBytes() {
+        long total = 0;
+        for (LuceneIndexShard shard : shards) {
+            total += shard.getRAMBytesUsed();
+        }
+        return total;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getDirectoryType() {
+        return directoryType;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getDirectoryRAMBytes() {
+        long total = 0;
+        for (LuceneIndexShard shard : shards) {
+            total += shard.getDirectoryRAMBytes();
+        }
+        return total;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getDirectoryMappedBytes() throws IOException {
+        long total = 0;
+        for (LuceneIndexShard shard : shards) {
+            total += shard.getDirectoryMappedBytes();
+        }
+        return total;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFlushes() {
+        long total = 0;
+        for (LuceneIndexShard shard : shards) {
+            total += shard.getFlushes();
+        }
+        return total;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getMerges() {
+        long total = 0;
+        for (LuceneIndexShard shard : shards) {
+            total += shard.getMerges();
+        }
+        return total;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getMergeMillis() {
+        long total = 0;
+        for (LuceneIndexShard shard : shards) {
+            total += shard.getMergeNanos();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(total);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSlowSearches() {
+        return metrics.getSlowSearchLog().getCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String[] getSlowSearchLog() {
+        List<String> entries = metrics.getSlowSearchLog().getEntries();
+        return entries.toArray(new String[entries.size()]);
+    }
+
     /**
      * Refreshes the index readers.
      */
     @Override
     public void refresh() {
         Log.info("%s refreshing readers", logName);
-        searcherReopener.run();
+        try {
+            for (LuceneIndexShard shard : shards) {
+                shard.refresh();
+            }
+        } catch (IOException e) {
+            Log.error(e, "Error while refreshing %s readers", logName);
+        }
     }
 }
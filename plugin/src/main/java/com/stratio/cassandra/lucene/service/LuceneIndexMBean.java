@@ -49,6 +49,368 @@ public interface LuceneIndexMBean {
      */
     void forceMergeDeletes(boolean doWait) throws IOException;
 
+    /**
+     * Returns the number of compiled searches currently cached.
+     *
+     * @return The number of compiled searches currently cached.
+     */
+    long getSearchCacheSize();
+
+    /**
+     * Returns the number of searches whose compiled form has been found in the search cache.
+     *
+     * @return The number of search cache hits.
+     */
+    long getSearchCacheHits();
+
+    /**
+     * Returns the number of searches that have been compiled because they were not found in the search cache.
+     *
+     * @return The number of search cache misses.
+     */
+    long getSearchCacheMisses();
+
+    /**
+     * Returns the number of compiled searches evicted from the search cache due to its size limit.
+     *
+     * @return The number of search cache evictions.
+     */
+    long getSearchCacheEvictions();
+
+    /**
+     * Returns the number of searches whose results are currently cached.
+     *
+     * @return The number of searches whose results are currently cached.
+     */
+    long getResultCacheSize();
+
+    /**
+     * Returns the number of searches whose results have been found in the result cache, skipping Lucene.
+     *
+     * @return The number of result cache hits.
+     */
+    long getResultCacheHits();
+
+    /**
+     * Returns the number of searches whose results have not been found in the result cache.
+     *
+     * @return The number of result cache misses.
+     */
+    long getResultCacheMisses();
+
+    /**
+     * Returns the number of search results evicted from the result cache due to its size limit.
+     *
+     * @return The number of result cache evictions.
+     */
+    long getResultCacheEvictions();
+
+    /**
+     * Returns the number of per-segment sets of documents matching a filter that are currently cached.
+     *
+     * @return The number of cached per-segment filter matches.
+     */
+    long getFilterCacheSize();
+
+    /**
+     * Returns the number of bytes used by the cached per-segment sets of documents matching a filter.
+     *
+     * @return The number of bytes used by the filter cache.
+     */
+    long getFilterCacheBytes();
+
+    /**
+     * Returns the number of times the matches of a filter in a segment have been found in the filter cache.
+     *
+     * @return The number of filter cache hits.
+     */
+    long getFilterCacheHits();
+
+    /**
+     * Returns the number of times the matches of a filter in a segment have not been found in the filter cache.
+     *
+     * @return The number of filter cache misses.
+     */
+    long getFilterCacheMisses();
+
+    /**
+     * Returns the number of per-segment filter matches evicted from the filter cache due to its size limits.
+     *
+     * @return The number of filter cache evictions.
+     */
+    long getFilterCacheEvictions();
+
+    /**
+     * Returns the number of pages of rows read from Cassandra by searches.
+     *
+     * @return The number of pages of rows read from Cassandra by searches.
+     */
+    long getFetchPages();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent reading a page of rows.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the page reading time in microseconds.
+     */
+    long[] getFetchLatencyMicros();
+
+    /**
+     * Returns the mean effective parallelism of the reading of rows, that is, the ratio between the time spent reading
+     * each row and the elapsed time for reading the pages.
+     *
+     * @return The mean effective parallelism of the reading of rows.
+     */
+    double getFetchParallelism();
+
+    /**
+     * Returns the number of batches of asynchronous indexing tasks that have been processed.
+     *
+     * @return The number of processed batches of asynchronous indexing tasks.
+     */
+    long getIndexingBatches();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of tasks in each batch of asynchronous indexing
+     * tasks.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the indexing batch size.
+     */
+    long[] getIndexingBatchSize();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent in the indexing queue by the
+     * oldest task of each batch.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the indexing queue time in microseconds.
+     */
+    long[] getIndexingQueueLatencyMicros();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent building the documents of each
+     * indexing batch.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the indexing batch building time in microseconds.
+     */
+    long[] getIndexingBuildLatencyMicros();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent writing the documents of each
+     * indexing batch into the index.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the indexing batch writing time in microseconds.
+     */
+    long[] getIndexingApplyLatencyMicros();
+
+    /**
+     * Returns the number of searches that have been performed.
+     *
+     * @return The number of performed searches.
+     */
+    long getSearches();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the total time in microseconds spent by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the search time in microseconds.
+     */
+    long[] getSearchLatencyMicros();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by each search in Lucene.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the Lucene search time in microseconds.
+     */
+    long[] getSearchLuceneLatencyMicros();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by each search collecting and
+     * filtering the rows from Cassandra.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the row collection time in microseconds.
+     */
+    long[] getSearchCollectLatencyMicros();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by each search sorting the
+     * collected rows.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the row sorting time in microseconds.
+     */
+    long[] getSearchSortLatencyMicros();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of documents scanned in Lucene by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the number of scanned documents.
+     */
+    long[] getSearchDocs();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of rows returned by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the number of returned rows.
+     */
+    long[] getSearchRows();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the number of pages of documents read by each search.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the number of pages.
+     */
+    long[] getSearchPages();
+
+    /**
+     * Returns the ratio of scanned documents whose rows have been discarded by the post-filtering.
+     *
+     * @return The ratio of scanned documents that have been discarded.
+     */
+    double getSearchRejectionRatio();
+
+    /**
+     * Returns the number of documents upserted into the index.
+     *
+     * @return The number of upserted documents.
+     */
+    long getUpserts();
+
+    /**
+     * Returns the mean number of documents upserted per second since the index has been opened.
+     *
+     * @return The mean number of upserted documents per second.
+     */
+    double getUpsertsPerSecond();
+
+    /**
+     * Returns the number of deletions by term or query applied to the index.
+     *
+     * @return The number of deletions.
+     */
+    long getDeletes();
+
+    /**
+     * Returns the mean number of deletions by term or query applied per second since the index has been opened.
+     *
+     * @return The mean number of deletions per second.
+     */
+    double getDeletesPerSecond();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent by the index writer updating
+     * each document.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the document update time in microseconds.
+     */
+    long[] getUpsertLatencyMicros();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent reading the stored rows before
+     * indexing a partition update.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the read before write time in microseconds.
+     */
+    long[] getReadBeforeWriteLatencyMicros();
+
+    /**
+     * Returns the number of refreshes of the index readers of all the shards.
+     *
+     * @return The number of refreshes.
+     */
+    long getRefreshes();
+
+    /**
+     * Returns the mean number of refreshes of the index readers per second since the index has been opened.
+     *
+     * @return The mean number of refreshes per second.
+     */
+    double getRefreshesPerSecond();
+
+    /**
+     * Returns the 50th, 99th and 99.9th percentiles of the time in microseconds spent refreshing the index readers of a
+     * shard.
+     *
+     * @return The 50th, 99th and 99.9th percentiles of the refresh time in microseconds.
+     */
+    long[] getRefreshLatencyMicros();
+
+    /**
+     * Returns the number of pending asynchronous indexing tasks in each indexing thread queue.
+     *
+     * @return The number of pending tasks in each indexing thread queue.
+     */
+    long[] getIndexingQueueDepths();
+
+    /**
+     * Returns the total time in milliseconds that writes have been blocked waiting for a full indexing thread queue.
+     *
+     * @return The total time in milliseconds spent waiting for a full indexing thread queue.
+     */
+    long getIndexingBlockedMillis();
+
+    /**
+     * Returns the number of bytes used by the index writer buffers of all the shards.
+     *
+     * @return The number of bytes used by the index writer buffers.
+     */
+    long getRAMBufferBytes();
+
+    /**
+     * Returns the type of the Lucene directory, that is, {@code fs}, {@code mmap}, {@code nio} or {@code ram}.
+     *
+     * @return The type of the Lucene directory.
+     */
+    String getDirectoryType();
+
+    /**
+     * Returns the number of bytes of the Java heap used by the directories of all the shards, that is, the whole index
+     * if it is RAM resident, or the recently flushed segments cached in memory otherwise.
+     *
+     * @return The number of bytes of the Java heap used by the directories.
+     */
+    long getDirectoryRAMBytes();
+
+    /**
+     * Returns the number of bytes of the memory-mapped index files of all the shards.
+     *
+     * @return The number of bytes of the memory-mapped index files.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    long getDirectoryMappedBytes() throws IOException;
+
+    /**
+     * Returns the number of flushes of the index writer buffers of all the shards.
+     *
+     * @return The number of flushes of the index writer buffers.
+     */
+    long getFlushes();
+
+    /**
+     * Returns the number of merges of segments in all the shards.
+     *
+     * @return The number of merges of segments.
+     */
+    long getMerges();
+
+    /**
+     * Returns the total time in milliseconds spent merging segments in all the shards.
+     *
+     * @return The total time in milliseconds spent merging segments.
+     */
+    long getMergeMillis();
+
+    /**
+     * Returns the number of searches that have been considered slow.
+     *
+     * @return The number of slow searches.
+     */
+    long getSlowSearches();
+
+    /**
+     * Returns the descriptions of the most recent slow searches, from the oldest to the newest.
+     *
+     * @return The descriptions of the most recent slow searches.
+     */
+    String[] getSlowSearchLog();
+
     /**
      * Refreshes the index readers.
      */
@@ -0,0 +1,518 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.stratio.cassandra.lucene.IndexConfig;
+import com.stratio.cassandra.lucene.util.Log;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.KeepOnlyLastCommitDeletionPolicy;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SnapshotDeletionPolicy;
+import org.apache.lucene.index.SortingMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.EarlyTerminatingSortingCollector;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.NRTCachingDirectory;
+import org.apache.lucene.util.Accountable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class wrapping a Lucene directory and its readers, writers and searchers for NRT. A {@link LuceneIndex} is composed
+ * by one or more shards, each one containing the documents of a disjoint range of partition key tokens.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class LuceneIndexShard {
+
+    /** The key of the index format version in the Lucene commit user data. */
+    static final String FORMAT_VERSION_KEY = "format_version";
+
+    /** The current index format version, in which the clustering keys and the tokens are order-preserving. */
+    static final int FORMAT_VERSION = 3;
+
+    private final Path path;
+    private final String directoryType;
+    private final String logName;
+    private final IndexMetrics metrics;
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong merges = new AtomicLong();
+    private final AtomicLong mergeNanos = new AtomicLong();
+
+    private Sort sort;
+    private FSDirectory fsDirectory;
+    private Directory directory;
+    private RAMResidentDirectory ramDirectory;
+    private SnapshotDeletionPolicy deletionPolicy;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+    private volatile AdaptiveRefresher refresher;
+    private SortingMergePolicy sortingMergePolicy;
+    private boolean needsRebuild;
+
+    /**
+     * Builds a new {@link LuceneIndexShard} stored in the specified directory path.
+     *
+     * @param path          The path of the directory in where the Lucene files will be stored.
+     * @param directoryType The type of the Lucene directory, that is, {@code fs}, {@code mmap}, {@code nio} or {@code
+     *                      ram}.
+     * @param logName       The name of the shard in log messages.
+     * @param metrics       The {@link IndexMetrics} where the refreshes are recorded.
+     */
+    public LuceneIndexShard(Path path, String directoryType, String logName, IndexMetrics metrics) {
+        this.path = path;
+        this.directoryType = directoryType;
+        this.logName = logName;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Initializes this using the specified {@link Sort} for trying to keep the {@link Document}s sorted.
+     *
+     * @param sort              The {@link Sort} to be used.
+     * @param analyzer          The default {@link Analyzer}.
+     * @param minRefreshSeconds The min time in seconds between refreshes of the index readers.
+     * @param refreshSeconds    The max time in seconds before refreshing the index readers after a write.
+     * @param ramBufferMB       The index writer buffer size in MB.
+     * @param maxMergeMB        NRTCachingDirectory max merge size in MB.
+     * @param maxCachedMB       NRTCachingDirectory max cached MB.
+     * @param searcherFactory   The {@link SearcherFactory} to be used for building the NRT searchers.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void init(Sort sort,
+                     Analyzer analyzer,
+                     double minRefreshSeconds,
+                     double refreshSeconds,
+                     int ramBufferMB,
+                     int maxMergeMB,
+                     int maxCachedMB,
+                     SearcherFactory searcherFactory) throws IOException {
+        this.sort = sort;
+
+        // Open or create directory
+        switch (directoryType) {
+            case IndexConfig.FS_DIRECTORY_TYPE:
+                fsDirectory = FSDirectory.open(path);
+                break;
+            case IndexConfig.MMAP_DIRECTORY_TYPE:
+                fsDirectory = new MMapDirectory(path);
+                break;
+            case IndexConfig.NIO_DIRECTORY_TYPE:
+            case IndexConfig.RAM_DIRECTORY_TYPE:
+                fsDirectory = new NIOFSDirectory(path);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown directory type " + directoryType);
+        }
+        if (directoryType.equals(IndexConfig.RAM_DIRECTORY_TYPE)) {
+            ramDirectory = new RAMResidentDirectory(fsDirectory);
+            directory = ramDirectory;
+        } else {
+            directory = new NRTCachingDirectory(fsDirectory, maxMergeMB, maxCachedMB);
+        }
+        int formatVersion = formatVersion(directory);
+
+        sortingMergePolicy = new SortingMergePolicy(new TieredMergePolicy(), sort);
+
+        // Setup index writer
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setRAMBufferSizeMB(ramBufferMB);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        config.setUseCompoundFile(true);
+        config.setMergePolicy(sortingMergePolicy);
+        if (ramDirectory != null) {
+            deletionPolicy = new SnapshotDeletionPolicy(new KeepOnlyLastCommitDeletionPolicy());
+            config.setIndexDeletionPolicy(deletionPolicy);
+        }
+        config.setMergeScheduler(new ConcurrentMergeScheduler() {
+            @Override
+            protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+                long startTime = System.nanoTime();
+                try {
+                    super.doMerge(writer, merge);
+                } finally {
+                    merges.incrementAndGet();
+                    mergeNanos.addAndGet(System.nanoTime() - startTime);
+                    if (refresher != null) {
+                        refresher.onChange(); // Release the merged segments
+                    }
+                }
+            }
+        });
+        indexWriter = new IndexWriter(directory, config) {
+            @Override
+            protected void doAfterFlush() throws IOException {
+                flushes.incrementAndGet();
+            }
+        };
+
+        // Discard the documents written with another format, they should be rebuilt
+        if (formatVersion != FORMAT_VERSION) {
+            Log.warn("%s has format version %d instead of %d, its documents will be discarded",
+                     logName,
+                     formatVersion,
+                     FORMAT_VERSION);
+            indexWriter.deleteAll();
+            needsRebuild = true;
+        }
+        indexWriter.setCommitData(Collections.singletonMap(FORMAT_VERSION_KEY, String.valueOf(FORMAT_VERSION)));
+        if (needsRebuild) {
+            commit();
+        }
+
+        // Setup NRT search
+        searcherManager = new SearcherManager(indexWriter, true, searcherFactory);
+        refresher = new AdaptiveRefresher(searcherManager,
+                                          minRefreshSeconds,
+                                          refreshSeconds,
+                                          metrics,
+                                          logName + " refresher");
+        refresher.start(); // Start the refresher thread
+    }
+
+    /**
+     * Returns the format version of the index stored in the specified {@link Directory}. Empty directories are
+     * considered to have the current format version, and indexes without format version are considered to have the
+     * original format, {@code 0}.
+     *
+     * @param directory A Lucene {@link Directory}.
+     * @return The format version of the index stored in {@code directory}.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    static int formatVersion(Directory directory) throws IOException {
+        if (!DirectoryReader.indexExists(directory)) {
+            return FORMAT_VERSION;
+        }
+        Map<String, String> userData = SegmentInfos.readLatestCommit(directory).getUserData();
+        String formatVersion = userData.get(FORMAT_VERSION_KEY);
+        return formatVersion == null ? 0 : Integer.parseInt(formatVersion);
+    }
+
+    /**
+     * Returns if the documents of this shard have been discarded during initialization because they were written with
+     * another format version, so they should be rebuilt.
+     *
+     * @return {@code true} if this shard should be rebuilt, {@code false} otherwise.
+     */
+    public boolean needsRebuild() {
+        return needsRebuild;
+    }
+
+    /**
+     * Returns the number of bytes used by the index writer buffer.
+     *
+     * @return The number of bytes used by the index writer buffer.
+     */
+    public long getRAMBytesUsed() {
+        return indexWriter.ramBytesUsed();
+    }
+
+    /**
+     * Returns the number of bytes of the Java heap used by the directory, that is, the whole index if it is RAM
+     * resident, or the recently flushed segments cached by the NRT caching directory otherwise.
+     *
+     * @return The number of bytes of the Java heap used by the directory.
+     */
+    public long getDirectoryRAMBytes() {
+        return ((Accountable) directory).ramBytesUsed();
+    }
+
+    /**
+     * Returns the number of bytes of the index files that are memory-mapped, which are only paged into memory by the
+     * operating system when they are read.
+     *
+     * @return The number of bytes of the memory-mapped index files.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public long getDirectoryMappedBytes() throws IOException {
+        long bytes = 0;
+        if (fsDirectory instanceof MMapDirectory) {
+            for (String fileName : fsDirectory.listAll()) {
+                try {
+                    bytes += fsDirectory.fileLength(fileName);
+                } catch (FileNotFoundException | NoSuchFileException e) {
+                    // Deleted by a merge after listing
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of flushes of the index writer buffer.
+     *
+     * @return The number of flushes of the index writer buffer.
+     */
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    /**
+     * Returns the number of merges of segments.
+     *
+     * @return The number of merges of segments.
+     */
+    public long getMerges() {
+        return merges.get();
+    }
+
+    /**
+     * Returns the total time in nanoseconds spent merging segments.
+     *
+     * @return The total time in nanoseconds spent merging segments.
+     */
+    public long getMergeNanos() {
+        return mergeNanos.get();
+    }
+
+    /**
+     * Updates the specified {@link Document} by first deleting the documents containing {@code Term} and then adding
+     * the new document.
+     *
+     * @param term     The {@link Term} to identify the document(s) to be deleted.
+     * @param document The {@link Document} to be added.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void upsert(Term term, Document document) throws IOException {
+        indexWriter.updateDocument(term, document);
+        refresher.onChange();
+    }
+
+    /**
+     * Deletes all the {@link Document}s containing the specified {@link Term}.
+     *
+     * @param term The {@link Term} to identify the documents to be deleted.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void delete(Term term) throws IOException {
+        indexWriter.deleteDocuments(term);
+        refresher.onChange();
+    }
+
+    /**
+     * Deletes all the {@link Document}s satisfying the specified {@link Query}.
+     *
+     * @param query The {@link Query} to identify the documents to be deleted.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void delete(Query query) throws IOException {
+        indexWriter.deleteDocuments(query);
+        refresher.onChange();
+    }
+
+    /**
+     * Deletes all the {@link Document}s.
+     *
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void truncate() throws IOException {
+        indexWriter.deleteAll();
+        refresher.onChange();
+    }
+
+    /**
+     * Commits the pending changes.
+     *
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void commit() throws IOException {
+        indexWriter.commit();
+        if (ramDirectory != null) {
+            IndexCommit commit = deletionPolicy.snapshot();
+            try {
+                ramDirectory.persist(commit);
+            } finally {
+                deletionPolicy.release(commit);
+                indexWriter.deleteUnusedFiles();
+            }
+        }
+    }
+
+    /**
+     * Commits all changes to the index, waits for pending merges to complete, and closes all associated resources.
+     *
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void close() throws IOException {
+        refresher.close();
+        searcherManager.close();
+        if (ramDirectory != null) {
+            commit();
+        }
+        indexWriter.close();
+        directory.close();
+    }
+
+    /**
+     * Returns an {@link IndexSearcher} over the current NRT state of this shard. It must be released with {@link
+     * #release(IndexSearcher)} after use.
+     *
+     * @return An {@link IndexSearcher} over this shard.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public IndexSearcher acquire() throws IOException {
+        refresher.onSearch();
+        return searcherManager.acquire();
+    }
+
+    /**
+     * Adds a listener to be notified each time the NRT searcher of this shard is refreshed.
+     *
+     * @param listener The {@link ReferenceManager.RefreshListener} to be added.
+     */
+    public void addRefreshListener(ReferenceManager.RefreshListener listener) {
+        searcherManager.addListener(listener);
+    }
+
+    /**
+     * Releases the specified {@link IndexSearcher} obtained with {@link #acquire()}.
+     *
+     * @param searcher The {@link IndexSearcher} to be released.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void release(IndexSearcher searcher) throws IOException {
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * Returns the top {@code count} hits for {@code query} after {@code after} using the specified {@link
+     * IndexSearcher}. If there is no {@link Sort} nor relevance, the hits are collected in the index sort order,
+     * terminating early in the sorted segments.
+     *
+     * @param searcher      An {@link IndexSearcher} over this shard.
+     * @param query         The {@link Query} to search for.
+     * @param sort          The {@link Sort} to be applied, maybe {@code null}.
+     * @param after         The starting {@link ScoreDoc}, maybe {@code null}.
+     * @param count         Return only the top {@code count} results.
+     * @param usesRelevance If the search uses relevance.
+     * @return The top hits.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public TopDocs topDocs(IndexSearcher searcher,
+                           Query query,
+                           Sort sort,
+                           ScoreDoc after,
+                           int count,
+                           boolean usesRelevance) throws IOException {
+        if (sort != null) {
+            return searcher.searchAfter(after, query, count, sort);
+        } else if (usesRelevance) {
+            return searcher.searchAfter(after, query, count);
+        } else {
+            FieldDoc start = after == null ? null : (FieldDoc) after;
+            TopFieldCollector tfc = TopFieldCollector.create(this.sort, count, start, true, false, false);
+            Collector collector = new EarlyTerminatingSortingCollector(tfc, this.sort, count, sortingMergePolicy);
+            searcher.search(query, collector);
+            return tfc.topDocs();
+        }
+    }
+
+    /**
+     * Returns the total number of {@link Document}s in this shard.
+     *
+     * @return The total number of {@link Document}s in this shard.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public long getNumDocs() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Returns the total number of deleted {@link Document}s in this shard.
+     *
+     * @return The total number of deleted {@link Document}s in this shard.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public long getNumDeletedDocs() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.getIndexReader().numDeletedDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Optimizes the shard forcing merge segments leaving the specified number of segments.
+     *
+     * @param maxNumSegments The maximum number of segments left in the shard after merging finishes.
+     * @param doWait         {@code true} if the call should block until the operation completes.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void forceMerge(int maxNumSegments, boolean doWait) throws IOException {
+        indexWriter.forceMerge(maxNumSegments, doWait);
+        commit();
+    }
+
+    /**
+     * Optimizes the shard forcing merge of all segments that have deleted documents.
+     *
+     * @param doWait {@code true} if the call should block until the operation completes.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void forceMergeDeletes(boolean doWait) throws IOException {
+        indexWriter.forceMergeDeletes(doWait);
+        commit();
+    }
+
+    /**
+     * Refreshes the shard readers, blocking until the refresh is completed.
+     *
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return logName;
+    }
+}
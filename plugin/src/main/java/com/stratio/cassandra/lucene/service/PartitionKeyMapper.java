@@ -17,6 +17,7 @@ package com.stratio.cassandra.lucene.service;
 
 import com.stratio.cassandra.lucene.schema.Column;
 import com.stratio.cassandra.lucene.schema.Columns;
+import com.stratio.cassandra.lucene.util.BinaryTokenStream;
 import com.stratio.cassandra.lucene.util.ByteBufferUtils;
 import org.apache.cassandra.config.CFMetaData;
 import org.apache.cassandra.config.ColumnDefinition;
@@ -25,14 +26,18 @@ import org.apache.cassandra.db.DecoratedKey;
 import org.apache.cassandra.db.Row;
 import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.dht.IPartitioner;
+import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
-import org.apache.lucene.document.Field.Store;
-import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.List;
 
@@ -82,9 +87,9 @@ public class PartitionKeyMapper {
      * @param partitionKey The raw partition key to be converted.
      */
     public void addFields(Document document, DecoratedKey partitionKey) {
-        String serializedKey = ByteBufferUtils.toString(partitionKey.getKey());
-        Field field = new StringField(FIELD_NAME, serializedKey, Store.YES);
-        document.add(field);
+        BytesRef bytesRef = ByteBufferUtils.bytesRef(partitionKey.getKey());
+        document.add(new Field(FIELD_NAME, new BinaryTokenStream(bytesRef), BinaryTokenStream.FIELD_TYPE));
+        document.add(new BinaryDocValuesField(FIELD_NAME, bytesRef));
     }
 
     /**
@@ -94,8 +99,8 @@ public class PartitionKeyMapper {
      * @return The specified raw partition key as a Lucene {@link Term}.
      */
     public Term term(DecoratedKey partitionKey) {
-        String serializedKey = ByteBufferUtils.toString(partitionKey.getKey());
-        return new Term(FIELD_NAME, serializedKey);
+        BytesRef bytesRef = ByteBufferUtils.bytesRef(partitionKey.getKey());
+        return new Term(FIELD_NAME, bytesRef);
     }
 
     /**
@@ -109,15 +114,26 @@ public class PartitionKeyMapper {
     }
 
     /**
-     * Returns the {@link DecoratedKey} contained in the specified Lucene {@link Document}.
+     * Returns the raw partition keys doc values of the specified index segment.
      *
-     * @param document the {@link Document} containing the partition key to be get.
-     * @return The {@link DecoratedKey} contained in the specified Lucene {@link Document}.
+     * @param reader A Lucene index segment reader.
+     * @return The raw partition keys doc values of the specified index segment.
+     * @throws IOException If Lucene throws IO errors.
      */
-    public DecoratedKey partitionKey(Document document) {
-        String string = document.get(FIELD_NAME);
-        ByteBuffer partitionKey = ByteBufferUtils.fromString(string);
-        return partitionKey(partitionKey);
+    public BinaryDocValues docValues(LeafReader reader) throws IOException {
+        return DocValues.getBinary(reader, FIELD_NAME);
+    }
+
+    /**
+     * Returns the {@link DecoratedKey} of the specified document contained in the specified doc values.
+     *
+     * @param docValues The raw partition keys doc values of an index segment.
+     * @param docId     The segment-relative document id.
+     * @return The {@link DecoratedKey} of the document identified by {@code docId}.
+     */
+    public DecoratedKey partitionKey(BinaryDocValues docValues, int docId) {
+        BytesRef bytesRef = docValues.get(docId);
+        return partitionKey(ByteBufferUtils.byteBuffer(bytesRef));
     }
 
     /**
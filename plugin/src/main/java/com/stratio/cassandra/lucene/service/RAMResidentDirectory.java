@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.Lock;
+import org.apache.lucene.store.LockObtainFailedException;
+import org.apache.lucene.store.RAMDirectory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link RAMDirectory} loaded from a {@link FSDirectory} and persisted to it on each commit, so all the reads are
+ * served from the Java heap without page cache misses. It is intended for small and frequently read indexes. The
+ * write lock of the {@link FSDirectory} is held until this is closed, so no other writer can modify the persisted
+ * index under it.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class RAMResidentDirectory extends RAMDirectory {
+
+    /** The prefix of a segments file being persisted. */
+    private static final String PENDING_PREFIX = "pending_";
+
+    private final FSDirectory fsDirectory;
+    private final Lock writeLock;
+    private final Set<String> persistedFiles = new HashSet<>();
+
+    /**
+     * Builds a new {@link RAMResidentDirectory} loading the contents of the specified {@link FSDirectory}, whose write
+     * lock is obtained.
+     *
+     * @param fsDirectory The {@link FSDirectory} in which the index is persisted.
+     * @throws LockObtainFailedException If the {@link FSDirectory} is already locked for writing.
+     * @throws IOException               If Lucene throws IO errors.
+     */
+    public RAMResidentDirectory(FSDirectory fsDirectory) throws IOException {
+        this.fsDirectory = fsDirectory;
+        this.writeLock = fsDirectory.makeLock(IndexWriter.WRITE_LOCK_NAME);
+        if (!writeLock.obtain(IndexWriterConfig.getDefaultWriteLockTimeout())) {
+            throw new LockObtainFailedException("Index locked for write: " + writeLock);
+        }
+        try {
+            for (String fileName : fsDirectory.listAll()) {
+                if (!fileName.equals(IndexWriter.WRITE_LOCK_NAME)) {
+                    copyFrom(fsDirectory, fileName, fileName, IOContext.READONCE);
+                }
+            }
+            if (DirectoryReader.indexExists(fsDirectory)) {
+                persistedFiles.addAll(SegmentInfos.readLatestCommit(fsDirectory).files(true));
+            }
+        } catch (IOException | RuntimeException e) {
+            writeLock.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Persists the specified {@link IndexCommit} of this directory, copying its new files and then deleting the files
+     * of the previously persisted commits. The segments file is copied the last, so a partially persisted commit is
+     * never visible.
+     *
+     * @param commit The {@link IndexCommit} to be persisted, which must be protected from deletion while persisting.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    public synchronized void persist(IndexCommit commit) throws IOException {
+        Collection<String> fileNames = commit.getFileNames();
+        String segmentsFileName = commit.getSegmentsFileName();
+        if (persistedFiles.contains(segmentsFileName)) {
+            return;
+        }
+
+        // Copy the new files
+        List<String> copiedFiles = new ArrayList<>();
+        for (String fileName : fileNames) {
+            if (!fileName.equals(segmentsFileName) && !persistedFiles.contains(fileName)) {
+                fsDirectory.copyFrom(this, fileName, fileName, IOContext.DEFAULT);
+                copiedFiles.add(fileName);
+            }
+        }
+        String pendingFileName = PENDING_PREFIX + segmentsFileName;
+        fsDirectory.copyFrom(this, segmentsFileName, pendingFileName, IOContext.DEFAULT);
+        copiedFiles.add(pendingFileName);
+        fsDirectory.sync(copiedFiles);
+        fsDirectory.renameFile(pendingFileName, segmentsFileName);
+
+        // Delete the files not belonging to the persisted commit
+        for (String fileName : fsDirectory.listAll()) {
+            if (!fileNames.contains(fileName) && !fileName.equals(IndexWriter.WRITE_LOCK_NAME)) {
+                fsDirectory.deleteFile(fileName);
+            }
+        }
+        persistedFiles.clear();
+        persistedFiles.addAll(fileNames);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        super.close();
+        try {
+            writeLock.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            fsDirectory.close();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded concurrent LRU cache of the {@link SearchResult}s of Lucene searches, keyed by the searched {@link Query},
+ * the {@link Sort}, the paging start, the number of requested results, the searched shards and the versions of the
+ * index readers used to search them. The cache is bounded by the estimated memory used by the cached results.
+ * <p/>
+ * Results computed with an index reader are valid while that reader is in use, so a repetition of the same search
+ * with the same readers can skip the Lucene search. All the cached results should be discarded with {@link
+ * #invalidate()} when a new reader is opened.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class ResultCache {
+
+    /** The estimated size in bytes of a cache entry without its results. */
+    private static final int ENTRY_BYTES = 256;
+
+    /** The estimated size in bytes of a {@link SearchResult} without its keys and sort values. */
+    private static final int RESULT_BYTES = 160;
+
+    private final boolean enabled;
+    private final Cache<Key, List<SearchResult>> cache;
+
+    /**
+     * Returns a new {@link ResultCache} holding up to the specified size of {@link SearchResult}s.
+     *
+     * @param maxMB The max size in MB of the cached {@link SearchResult}s, where {@code 0} means no caching.
+     */
+    public ResultCache(int maxMB) {
+        enabled = maxMB > 0;
+        cache = CacheBuilder.newBuilder()
+                            .maximumWeight(maxMB * 1024L * 1024L)
+                            .weigher(new Weigher<Key, List<SearchResult>>() {
+                                @Override
+                                public int weigh(Key key, List<SearchResult> searchResults) {
+                                    return weight(searchResults);
+                                }
+                            })
+                            .recordStats()
+                            .build();
+    }
+
+    /**
+     * Returns if this cache can hold any {@link SearchResult}.
+     *
+     * @return {@code true} if this cache is enabled, {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached {@link SearchResult}s of the search with the specified arguments, or {@code null} if they are
+     * not cached.
+     *
+     * @param key The search arguments.
+     * @return The cached {@link SearchResult}s, or {@code null} if they are not cached.
+     */
+    public List<SearchResult> get(Key key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Caches the {@link SearchResult}s of the search with the specified arguments.
+     *
+     * @param key           The search arguments.
+     * @param searchResults The {@link SearchResult}s of the search.
+     * @return An unmodifiable view of {@code searchResults}.
+     */
+    public List<SearchResult> put(Key key, List<SearchResult> searchResults) {
+        List<SearchResult> unmodifiable = Collections.unmodifiableList(searchResults);
+        if (enabled) {
+            cache.put(key, unmodifiable);
+        }
+        return unmodifiable;
+    }
+
+    /**
+     * Discards all the cached {@link SearchResult}s.
+     */
+    public void invalidate() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of cached searches.
+     *
+     * @return The number of cached searches.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the number of times the results of a search have been found in this cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * Returns the number of times the results of a search have not been found in this cache.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * Returns the number of cached searches evicted from this cache due to its size limit.
+     *
+     * @return The number of cache evictions.
+     */
+    public long getEvictions() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * Returns the estimated size in bytes of the specified cached {@link SearchResult}s.
+     *
+     * @param searchResults A list of {@link SearchResult}s.
+     * @return The estimated size in bytes of {@code searchResults}.
+     */
+    static int weight(List<SearchResult> searchResults) {
+        long weight = ENTRY_BYTES;
+        for (SearchResult searchResult : searchResults) {
+            weight += RESULT_BYTES + searchResult.getPartitionKey().getKey().remaining();
+            if (searchResult.getClusteringKey() != null) {
+                weight += searchResult.getClusteringKey().dataSize();
+            }
+            ScoreDoc scoreDoc = searchResult.getScoreDoc();
+            if (scoreDoc instanceof FieldDoc) {
+                for (Object field : ((FieldDoc) scoreDoc).fields) {
+                    weight += field instanceof BytesRef ? 32 + ((BytesRef) field).length : 16;
+                }
+            }
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        CacheStats stats = cache.stats();
+        return Objects.toStringHelper(this)
+                      .add("size", cache.size())
+                      .add("hits", stats.hitCount())
+                      .add("misses", stats.missCount())
+                      .add("evictions", stats.evictionCount())
+                      .toString();
+    }
+
+    /**
+     * The arguments of a search whose {@link SearchResult}s can be cached.
+     */
+    public static final class Key {
+
+        private final Query query;
+        private final Sort sort;
+        private final ScoreDoc after;
+        private final int count;
+        private final boolean usesRelevance;
+        private final BitSet shards;
+        private final long[] versions;
+
+        /**
+         * Builds a new {@link Key} for the search with the specified arguments.
+         *
+         * @param query         The searched {@link Query}.
+         * @param sort          The {@link Sort} to be applied, maybe {@code null}.
+         * @param after         The paging start, maybe {@code null}.
+         * @param count         The max number of results.
+         * @param usesRelevance If the search uses relevance.
+         * @param shards        The indexes of the searched shards.
+         * @param versions      The versions of the index readers of all the shards.
+         */
+        public Key(Query query,
+                   Sort sort,
+                   ScoreDoc after,
+                   int count,
+                   boolean usesRelevance,
+                   BitSet shards,
+                   long[] versions) {
+            this.query = query;
+            this.sort = sort;
+            this.after = after;
+            this.count = count;
+            this.usesRelevance = usesRelevance;
+            this.shards = shards;
+            this.versions = versions;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return count == key.count &&
+                   usesRelevance == key.usesRelevance &&
+                   Arrays.equals(versions, key.versions) &&
+                   shards.equals(key.shards) &&
+                   query.equals(key.query) &&
+                   Objects.equal(sort, key.sort) &&
+                   equal(after, key.after);
+        }
+
+        private static boolean equal(ScoreDoc a, ScoreDoc b) {
+            if (a == null || b == null) {
+                return a == b;
+            }
+            return a.getClass() == b.getClass() &&
+                   a.doc == b.doc &&
+                   a.shardIndex == b.shardIndex &&
+                   Float.compare(a.score, b.score) == 0 &&
+                   (!(a instanceof FieldDoc) || Arrays.equals(((FieldDoc) a).fields, ((FieldDoc) b).fields));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            int result = query.hashCode();
+            result = 31 * result + (sort == null ? 0 : sort.hashCode());
+            result = 31 * result + (after == null ? 0 : after.doc);
+            result = 31 * result + count;
+            result = 31 * result + shards.hashCode();
+            result = 31 * result + Arrays.hashCode(versions);
+            return result;
+        }
+    }
+}
@@ -15,13 +15,15 @@
  */
 package com.stratio.cassandra.lucene.service;
 
-import com.stratio.cassandra.lucene.contrib.ComparatorChain;
 import com.stratio.cassandra.lucene.query.Sort;
 import com.stratio.cassandra.lucene.query.SortField;
+import com.stratio.cassandra.lucene.schema.Column;
 import com.stratio.cassandra.lucene.schema.Columns;
 import org.apache.cassandra.db.Row;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * A {@link Comparator} for comparing {@link Row}s according to a certain Lucene {@link Sort}.
@@ -31,7 +33,7 @@ import java.util.Comparator;
 class RowComparatorSorting implements RowComparator {
 
     private final RowMapper rowMapper;
-    private final ComparatorChain<Columns> comparatorChain;
+    private final List<SortField> sortFields;
 
     /**
      * @param rowMapper The indexing {@link RowMapper} of the {@link Row}s to be compared.
@@ -39,11 +41,7 @@ class RowComparatorSorting implements RowComparator {
      */
     public RowComparatorSorting(RowMapper rowMapper, Sort sort) {
         this.rowMapper = rowMapper;
-        comparatorChain = new ComparatorChain<>();
-        for (SortField sortField : sort.getSortFields()) {
-            Comparator<Columns> comparator = sortField.comparator();
-            comparatorChain.addComparator(comparator);
-        }
+        this.sortFields = sort.getSortFields();
     }
 
     /**
@@ -56,8 +54,65 @@ class RowComparatorSorting implements RowComparator {
      */
     @Override
     public int compare(Row row1, Row row2) {
-        Columns columns1 = rowMapper.columns(row1);
-        Columns columns2 = rowMapper.columns(row2);
-        return comparatorChain.compare(columns1, columns2);
+        return compare(sortKey(row1), sortKey(row2));
+    }
+
+    /**
+     * Sorts the specified {@link Row}s. The sort key of each {@link Row} is extracted only once, so this is much faster
+     * than sorting with {@link #compare(Row, Row)}.
+     *
+     * @param rows The {@link Row}s to be sorted.
+     */
+    public void sort(List<Row> rows) {
+        final Row[] sortedRows = rows.toArray(new Row[rows.size()]);
+        final Column<?>[][] sortKeys = new Column<?>[sortedRows.length][];
+        Integer[] positions = new Integer[sortedRows.length];
+        for (int i = 0; i < sortedRows.length; i++) {
+            sortKeys[i] = sortKey(sortedRows[i]);
+            positions[i] = i;
+        }
+        Arrays.sort(positions, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer position1, Integer position2) {
+                return RowComparatorSorting.this.compare(sortKeys[position1], sortKeys[position2]);
+            }
+        });
+        for (int i = 0; i < positions.length; i++) {
+            rows.set(i, sortedRows[positions[i]]);
+        }
+    }
+
+    /**
+     * Returns the sort key of the specified {@link Row}, composed by the {@link Column} to be used by each {@link
+     * SortField}.
+     *
+     * @param row A {@link Row}.
+     * @return The sort key of {@code row}.
+     */
+    private Column<?>[] sortKey(Row row) {
+        Columns columns = rowMapper.columns(row);
+        Column<?>[] sortKey = new Column<?>[sortFields.size()];
+        for (int i = 0; i < sortKey.length; i++) {
+            sortKey[i] = sortFields.get(i).column(columns);
+        }
+        return sortKey;
+    }
+
+    /**
+     * Compares the specified sort keys.
+     *
+     * @param sortKey1 A sort key.
+     * @param sortKey2 Another sort key.
+     * @return A negative integer, zero, or a positive integer as the first argument is less than, equal to, or greater
+     * than the second.
+     */
+    private int compare(Column<?>[] sortKey1, Column<?>[] sortKey2) {
+        for (int i = 0; i < sortKey1.length; i++) {
+            int comparison = sortFields.get(i).compare(sortKey1[i], sortKey2[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
     }
 }
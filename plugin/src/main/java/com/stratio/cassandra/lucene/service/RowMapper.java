@@ -24,13 +24,22 @@ import org.apache.cassandra.db.DataRange;
 import org.apache.cassandra.db.DecoratedKey;
 import org.apache.cassandra.db.Row;
 import org.apache.cassandra.db.composites.CellName;
+import org.apache.cassandra.dht.Token;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * Class for several {@link Row} mappings between Cassandra and Lucene.
@@ -109,23 +118,39 @@ public abstract class RowMapper {
     }
 
     /**
-     * Returns the decorated partition key contained in the specified {@link Document}.
+     * Returns the Lucene {@link Term} to get the {@link Document}s containing the specified decorated partition key.
      *
-     * @param document A {@link Document}.
-     * @return The decorated partition key contained in the specified {@link Document}.
+     * @param partitionKey A decorated partition key.
+     * @return The Lucene {@link Term} to get the {@link Document}s containing the specified decorated partition key.
      */
-    public final DecoratedKey partitionKey(Document document) {
-        return partitionKeyMapper.partitionKey(document);
+    public Term term(DecoratedKey partitionKey) {
+        return partitionKeyMapper.term(partitionKey);
     }
 
     /**
-     * Returns the Lucene {@link Term} to get the {@link Document}s containing the specified decorated partition key.
+     * Returns the index of the shard containing the {@link Document}s of the specified partition key in an index split
+     * in the specified number of shards.
      *
      * @param partitionKey A decorated partition key.
-     * @return The Lucene {@link Term} to get the {@link Document}s containing the specified decorated partition key.
+     * @param numShards    The number of shards.
+     * @return The index of the shard containing the {@link Document}s of {@code partitionKey}.
      */
-    public Term term(DecoratedKey partitionKey) {
-        return partitionKeyMapper.term(partitionKey);
+    public final int shard(DecoratedKey partitionKey, int numShards) {
+        return numShards == 1 ? 0 : tokenMapper.shard(partitionKey.getToken(), numShards);
+    }
+
+    /**
+     * Returns the indexes of the shards that may contain {@link Document}s satisfying the specified {@link DataRange}
+     * in an index split in the specified number of shards.
+     *
+     * @param dataRange A {@link DataRange}.
+     * @param numShards The number of shards.
+     * @return The indexes of the shards that may contain {@link Document}s satisfying {@code dataRange}.
+     */
+    public final BitSet shards(DataRange dataRange, int numShards) {
+        Token lower = dataRange.startKey().getToken();
+        Token upper = dataRange.stopKey().getToken();
+        return tokenMapper.shards(lower, upper, numShards);
     }
 
     /**
@@ -159,12 +184,61 @@ public abstract class RowMapper {
     public abstract RowComparator naturalComparator();
 
     /**
-     * Returns the {@link SearchResult} defined by the specified {@link Document} and {@link ScoreDoc}.
+     * Returns the {@link SearchResult}s defined by the specified Lucene hits, in the same order. The primary keys are
+     * read from the per-segment doc values in doc id order, so the {@link Document}s are not loaded.
      *
-     * @param document A {@link Document}.
-     * @param scoreDoc A {@link ScoreDoc}.
-     * @return The {@link SearchResult} defined by the specified {@link Document} and {@link ScoreDoc}.
+     * @param reader    The {@link IndexReader} used for searching.
+     * @param scoreDocs The Lucene hits.
+     * @return The {@link SearchResult}s defined by the specified Lucene hits.
+     * @throws IOException If Lucene throws IO errors.
      */
-    public abstract SearchResult searchResult(Document document, ScoreDoc scoreDoc);
+    public final List<SearchResult> searchResults(IndexReader reader, ScoreDoc[] scoreDocs) throws IOException {
 
+        // Sort hits by doc id keeping their original positions
+        long[] hits = new long[scoreDocs.length];
+        for (int i = 0; i < scoreDocs.length; i++) {
+            hits[i] = ((long) scoreDocs[i].doc << 32) | i;
+        }
+        Arrays.sort(hits);
+
+        SearchResult[] searchResults = new SearchResult[scoreDocs.length];
+        List<LeafReaderContext> leaves = reader.leaves();
+        LeafReaderContext leaf = null;
+        KeysReader keysReader = null;
+        for (long hit : hits) {
+            int position = (int) hit;
+            ScoreDoc scoreDoc = scoreDocs[position];
+            int docId = scoreDoc.doc;
+            if (leaf == null || docId >= leaf.docBase + leaf.reader().maxDoc()) {
+                leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+                keysReader = keysReader(leaf.reader());
+            }
+            searchResults[position] = keysReader.searchResult(docId - leaf.docBase, scoreDoc);
+        }
+        return Arrays.asList(searchResults);
+    }
+
+    /**
+     * Returns a {@link KeysReader} for reading the primary keys from the doc values of the specified index segment.
+     *
+     * @param reader A Lucene index segment reader.
+     * @return A {@link KeysReader} for {@code reader}.
+     * @throws IOException If Lucene throws IO errors.
+     */
+    protected abstract KeysReader keysReader(LeafReader reader) throws IOException;
+
+    /**
+     * Reader of the primary keys contained in the doc values of an index segment.
+     */
+    protected interface KeysReader {
+
+        /**
+         * Returns the {@link SearchResult} for the specified document of the segment.
+         *
+         * @param docId    The segment-relative document id.
+         * @param scoreDoc The Lucene hit.
+         * @return The {@link SearchResult} for the specified document.
+         */
+        SearchResult searchResult(int docId, ScoreDoc scoreDoc);
+    }
 }
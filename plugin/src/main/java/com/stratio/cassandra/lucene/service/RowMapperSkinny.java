@@ -30,10 +30,14 @@ import org.apache.cassandra.db.filter.IDiskAtomFilter;
 import org.apache.cassandra.db.filter.SliceQueryFilter;
 import org.apache.cassandra.dht.Token;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 
+import java.io.IOException;
+
 /**
  * {@link RowMapper} for skinny rows.
  *
@@ -130,8 +134,14 @@ public class RowMapperSkinny extends RowMapper {
      * {@inheritDoc}
      */
     @Override
-    public SearchResult searchResult(Document document, ScoreDoc scoreDoc) {
-        DecoratedKey partitionKey = partitionKeyMapper.partitionKey(document);
-        return new SearchResult(partitionKey, null, scoreDoc);
+    protected KeysReader keysReader(LeafReader reader) throws IOException {
+        final BinaryDocValues partitionKeys = partitionKeyMapper.docValues(reader);
+        return new KeysReader() {
+            @Override
+            public SearchResult searchResult(int docId, ScoreDoc scoreDoc) {
+                DecoratedKey partitionKey = partitionKeyMapper.partitionKey(partitionKeys, docId);
+                return new SearchResult(partitionKey, null, scoreDoc);
+            }
+        };
     }
 }
@@ -33,6 +33,9 @@ import org.apache.cassandra.dht.Token;
 import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
@@ -41,6 +44,7 @@ import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -268,9 +272,16 @@ public class RowMapperWide extends RowMapper {
      * {@inheritDoc}
      */
     @Override
-    public SearchResult searchResult(Document document, ScoreDoc scoreDoc) {
-        DecoratedKey partitionKey = partitionKeyMapper.partitionKey(document);
-        CellName clusteringKey = clusteringKeyMapper.clusteringKey(document);
-        return new SearchResult(partitionKey, clusteringKey, scoreDoc);
+    protected KeysReader keysReader(LeafReader reader) throws IOException {
+        final BinaryDocValues partitionKeys = partitionKeyMapper.docValues(reader);
+        final SortedDocValues clusteringKeys = clusteringKeyMapper.docValues(reader);
+        return new KeysReader() {
+            @Override
+            public SearchResult searchResult(int docId, ScoreDoc scoreDoc) {
+                DecoratedKey partitionKey = partitionKeyMapper.partitionKey(partitionKeys, docId);
+                CellName clusteringKey = clusteringKeyMapper.clusteringKey(clusteringKeys, docId);
+                return new SearchResult(partitionKey, clusteringKey, scoreDoc);
+            }
+        };
     }
 }
@@ -15,6 +15,11 @@
  */
 package com.stratio.cassandra.lucene.service;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.stratio.cassandra.lucene.IndexConfig;
 import com.stratio.cassandra.lucene.query.Search;
 import com.stratio.cassandra.lucene.schema.Column;
@@ -23,6 +28,7 @@ import com.stratio.cassandra.lucene.schema.Schema;
 import com.stratio.cassandra.lucene.util.Log;
 import com.stratio.cassandra.lucene.util.TaskQueue;
 import com.stratio.cassandra.lucene.util.TimeCounter;
+import org.apache.cassandra.concurrent.DebuggableThreadPoolExecutor;
 import org.apache.cassandra.config.CFMetaData;
 import org.apache.cassandra.config.ColumnDefinition;
 import org.apache.cassandra.cql3.Operator;
@@ -37,7 +43,10 @@ import org.apache.cassandra.db.Row;
 import org.apache.cassandra.db.composites.CellName;
 import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.utils.BatchRemoveIterator;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
@@ -45,11 +54,16 @@ import org.apache.lucene.search.Sort;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class for mapping rows between Cassandra and Lucene.
@@ -62,13 +76,20 @@ public abstract class RowService {
     private static final int MAX_PAGE_SIZE = 100000;
     private static final int FILTERING_PAGE_SIZE = 1000;
 
+    /** The first byte of binary scores, which can't be the first byte of a text score. */
+    static final byte BINARY_SCORE_MARKER = 0;
+
     final ColumnFamilyStore baseCfs;
     final RowMapper rowMapper;
     final CFMetaData metadata;
     final LuceneIndex luceneIndex;
 
+    private final String indexName;
     private final Schema schema;
-    private final TaskQueue indexQueue;
+    private final IndexExpressionMapper expressionMapper;
+    private final boolean binaryScores;
+    private final TaskQueue<IndexingTask> indexQueue;
+    private final ListeningExecutorService fetchExecutor;
 
     /**
      * Returns a new {@code RowService}.
@@ -81,27 +102,57 @@ public abstract class RowService {
         this.baseCfs = baseCfs;
         this.metadata = baseCfs.metadata;
 
+        this.indexName = String.format("%s.%s", metadata.ksName, columnDefinition.getIndexName());
+
         IndexConfig config = new IndexConfig(metadata, columnDefinition.getIndexOptions());
 
         this.schema = config.getSchema();
         this.rowMapper = RowMapper.build(metadata, columnDefinition, schema);
+        this.expressionMapper = new IndexExpressionMapper(metadata, schema);
+        this.binaryScores = config.getBinaryScores();
 
         this.luceneIndex = new LuceneIndex(columnDefinition.ksName,
                                            columnDefinition.cfName,
                                            columnDefinition.getIndexName(),
                                            config.getPath(),
+                                           config.getDirectoryType(),
+                                           config.getMinRefreshSeconds(),
                                            config.getRefreshSeconds(),
                                            config.getRamBufferMB(),
                                            config.getMaxMergeMB(),
                                            config.getMaxCachedMB(),
+                                           config.getSearchCacheSize(),
+                                           config.getResultCacheMB(),
+                                           config.getFilterCacheMB(),
+                                           config.getSearchThreads(),
+                                           config.getMinSliceDocs(),
+                                           config.getShards(),
                                            schema.getAnalyzer());
 
         int indexingThreads = config.getIndexingThreads();
         if (indexingThreads > 0) {
-            this.indexQueue = new TaskQueue(indexingThreads, config.getIndexingQueuesSize());
+            String name = String.format("LuceneIndexing-%s.%s", metadata.ksName, columnDefinition.getIndexName());
+            this.indexQueue = new TaskQueue<>(name,
+                                              indexingThreads,
+                                              config.getIndexingQueuesSize(),
+                                              config.getIndexingBatchSize(),
+                                              config.getIndexingLingerMillis(),
+                                              new IndexingBatchProcessor());
+            luceneIndex.getMetrics().setIndexingQueue(indexQueue);
         } else {
             this.indexQueue = null;
         }
+
+        luceneIndex.getMetrics().setSlowSearchLog(new SlowSearchLog(config.getSlowSearchMillis()));
+
+        int fetchThreads = config.getFetchThreads();
+        if (fetchThreads > 0) {
+            String name = String.format("LuceneFetch-%s.%s", metadata.ksName, columnDefinition.getIndexName());
+            ExecutorService executor = DebuggableThreadPoolExecutor.createWithFixedPoolSize(name, fetchThreads);
+            this.fetchExecutor = MoreExecutors.listeningDecorator(executor);
+        } else {
+            this.fetchExecutor = null;
+        }
     }
 
     /**
@@ -130,11 +181,26 @@ public abstract class RowService {
     }
 
     /**
-     * Returns the names of the document fields to be loaded when reading a Lucene index.
+     * Returns the {@link CompiledSearch} represented by the specified JSON, reusing a cached one if possible. The
+     * returned {@link CompiledSearch} is validated against the used {@link Schema}.
      *
-     * @return The names of the document fields to be loaded.
+     * @param json A JSON {@link Search} representation.
+     * @return The {@link CompiledSearch} represented by {@code json}.
      */
-    protected abstract Set<String> fieldsToLoad();
+    public final CompiledSearch compile(String json) {
+        UUID schemaVersion = org.apache.cassandra.config.Schema.instance.getVersion();
+        return luceneIndex.getSearchCache().get(json, schemaVersion, schema);
+    }
+
+    /**
+     * Returns the index of the Lucene index shard containing the {@link Document}s of the specified partition key.
+     *
+     * @param partitionKey A decorated partition key.
+     * @return The index of the shard containing the {@link Document}s of {@code partitionKey}.
+     */
+    protected final int shard(DecoratedKey partitionKey) {
+        return rowMapper.shard(partitionKey, luceneIndex.getNumShards());
+    }
 
     /**
      * Indexes the logical {@link Row} identified by the specified key and column family using the specified time stamp.
@@ -148,30 +214,34 @@ public abstract class RowService {
      */
     public void index(final ByteBuffer key, final ColumnFamily columnFamily, final long timestamp) throws IOException {
         if (indexQueue == null) {
-            doIndex(key, columnFamily, timestamp);
+            IndexWriteBatch batch = new IndexWriteBatch(luceneIndex);
+            doIndex(key, columnFamily, timestamp, batch);
+            batch.apply();
         } else {
-            indexQueue.submitAsynchronous(key, new Runnable() {
+            indexQueue.submitAsynchronous(key, new IndexingTask() {
                 @Override
-                public void run() {
-                    try {
-                        doIndex(key, columnFamily, timestamp);
-                    } catch (Exception e) {
-                        Log.error(e, "Unrecoverable error during asynchronously indexing");
-                    }
+                public void run(IndexWriteBatch batch) throws IOException {
+                    doIndex(key, columnFamily, timestamp, batch);
                 }
             });
         }
     }
 
     /**
-     * Puts in the Lucene index the Cassandra's the row identified by the specified partition key and the clustering
-     * keys contained in the specified {@link ColumnFamily}.
+     * Puts in the specified {@link IndexWriteBatch} the Cassandra's the row identified by the specified partition key
+     * and the clustering keys contained in the specified {@link ColumnFamily}.
+     * <p/>
+     * The indexed rows are always read from the table instead of being built from the update alone, because the stored
+     * cells can be newer than the written ones, as it happens with hint replays, read repairs, concurrent writers or
+     * writes with client-provided timestamps, and no tombstone in the update can guarantee otherwise.
      *
      * @param key          The partition key.
      * @param columnFamily The column family containing the clustering keys.
      * @param timestamp    The operation time stamp.
+     * @param batch        The {@link IndexWriteBatch} where the index writes are going to be added.
      */
-    protected abstract void doIndex(ByteBuffer key, ColumnFamily columnFamily, long timestamp) throws IOException;
+    protected abstract void doIndex(ByteBuffer key, ColumnFamily columnFamily, long timestamp, IndexWriteBatch batch)
+    throws IOException;
 
     /**
      * Deletes the partition identified by the specified partition key. This operation is performed asynchronously.
@@ -180,27 +250,71 @@ public abstract class RowService {
      */
     public void delete(final DecoratedKey partitionKey) throws IOException {
         if (indexQueue == null) {
-            doDelete(partitionKey);
+            IndexWriteBatch batch = new IndexWriteBatch(luceneIndex);
+            doDelete(partitionKey, batch);
+            batch.apply();
         } else {
-            indexQueue.submitAsynchronous(partitionKey, new Runnable() {
+            indexQueue.submitAsynchronous(partitionKey, new IndexingTask() {
                 @Override
-                public void run() {
-                    try {
-                        doDelete(partitionKey);
-                    } catch (Exception e) {
-                        Log.error(e, "Unrecoverable error during asynchronous deletion of %s", partitionKey);
-                    }
+                public void run(IndexWriteBatch batch) throws IOException {
+                    doDelete(partitionKey, batch);
                 }
             });
         }
     }
 
     /**
-     * Deletes the partition identified by the specified partition key.
+     * Puts in the specified {@link IndexWriteBatch} the deletion of the partition identified by the specified partition
+     * key.
      *
      * @param partitionKey The partition key identifying the partition to be deleted.
+     * @param batch        The {@link IndexWriteBatch} where the index writes are going to be added.
      */
-    protected abstract void doDelete(DecoratedKey partitionKey) throws IOException;
+    protected abstract void doDelete(DecoratedKey partitionKey, IndexWriteBatch batch) throws IOException;
+
+    /**
+     * An asynchronous indexing task, which adds its index writes to the {@link IndexWriteBatch} of the batch of tasks
+     * being processed by its indexing thread.
+     */
+    private interface IndexingTask {
+
+        /**
+         * Runs this task, adding its index writes to the specified {@link IndexWriteBatch}.
+         *
+         * @param batch The {@link IndexWriteBatch} where the index writes are going to be added.
+         * @throws IOException If there are IO errors.
+         */
+        void run(IndexWriteBatch batch) throws IOException;
+    }
+
+    /**
+     * {@link TaskQueue.BatchProcessor} building the documents of a batch of {@link IndexingTask}s in a single pass and
+     * then writing them into the index all together.
+     */
+    private class IndexingBatchProcessor implements TaskQueue.BatchProcessor<IndexingTask> {
+
+        /** {@inheritDoc} */
+        @Override
+        public void process(List<IndexingTask> tasks, long queuedNanos) {
+            long startTime = System.nanoTime();
+            IndexWriteBatch batch = new IndexWriteBatch(luceneIndex);
+            for (IndexingTask task : tasks) {
+                try {
+                    task.run(batch);
+                } catch (Exception e) {
+                    Log.error(e, "Unrecoverable error during asynchronous indexing");
+                }
+            }
+            long buildTime = System.nanoTime() - startTime;
+            try {
+                batch.apply();
+            } catch (Exception e) {
+                Log.error(e, "Unrecoverable error during asynchronous indexing batch writing");
+            }
+            long applyTime = System.nanoTime() - startTime - buildTime;
+            luceneIndex.getMetrics().recordIndexingBatch(tasks.size(), queuedNanos, buildTime, applyTime);
+        }
+    }
 
     /**
      * Deletes all the {@link Document}s.
@@ -213,12 +327,19 @@ public abstract class RowService {
      * Closes and removes all the index files.
      */
     public final void delete() throws IOException {
+        if (indexQueue != null) {
+            indexQueue.shutdown();
+        }
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdown();
+        }
         luceneIndex.delete();
         schema.close();
     }
 
     /**
-     * Commits the pending changes. This operation is performed asynchronously.
+     * Commits the pending changes. This operation waits for the previously submitted indexing tasks, without blocking
+     * the submission nor the processing of the newer ones.
      */
     public final void commit() throws IOException {
         if (indexQueue == null) {
@@ -240,14 +361,14 @@ public abstract class RowService {
     /**
      * Returns the stored and indexed {@link Row}s satisfying the specified restrictions.
      *
-     * @param search      The {@link Search} to be performed.
+     * @param search      The {@link CompiledSearch} to be performed.
      * @param expressions A list of filtering {@link IndexExpression}s to be satisfied.
      * @param dataRange   A {@link DataRange} to be satisfied.
      * @param limit       The max number of {@link Row}s to be returned.
      * @param timestamp   The operation time stamp.
      * @return The {@link Row}s satisfying the specified restrictions.
      */
-    public final List<Row> search(Search search,
+    public final List<Row> search(CompiledSearch search,
                                   List<IndexExpression> expressions,
                                   DataRange dataRange,
                                   final int limit,
@@ -261,48 +382,58 @@ public abstract class RowService {
         TimeCounter sortTime = new TimeCounter();
         int numDocs = 0;
         int numPages = 0;
+        int numFetched = 0;
+        int numRejected = 0;
 
         searchTime.start();
 
         // Setup search arguments
         Query rangeQuery = rowMapper.query(dataRange);
-        Query query = search.query(schema, rangeQuery);
-        Sort sort = search.sort(schema);
+        BitSet shards = rowMapper.shards(dataRange, luceneIndex.getNumShards());
+        Query query = query(search, rangeQuery, expressions);
+        Sort sort = search.sort();
         boolean relevance = search.usesRelevance();
 
         // Setup search pagination
         List<Row> rows = new LinkedList<>(); // The row list to be returned
         ScoreDoc last = null; // The last search result
+        List<SearchResult> searchResults = null; // The prefetched search results
+        boolean prefetch = fetchExecutor != null && !expressions.isEmpty(); // If next pages are likely needed
 
         // Paginate search collecting documents
         int page = Math.min(limit, MAX_PAGE_SIZE);
         boolean maybeMore;
         do {
-            // Search rows identifiers in Lucene
-            luceneTime.start();
-            Map<Document, ScoreDoc> docs = luceneIndex.search(query, sort, last, page, fieldsToLoad(), relevance);
-            List<SearchResult> searchResults = new ArrayList<>(docs.size());
-            for (Map.Entry<Document, ScoreDoc> entry : docs.entrySet()) {
-                searchResults.add(rowMapper.searchResult(entry.getKey(), entry.getValue()));
+            // Search rows identifiers in Lucene, unless they have been prefetched
+            if (searchResults == null) {
+                searchResults = search(query, sort, last, page, relevance, shards, luceneTime);
             }
             numDocs += searchResults.size();
             last = searchResults.isEmpty() ? null : searchResults.get(searchResults.size() - 1).getScoreDoc();
-            luceneTime.stop();
 
-            // Collect rows from Cassandra
+            // Setup next iteration, there will be only if we don't have enough rows
+            maybeMore = searchResults.size() == page;
+            page = FILTERING_PAGE_SIZE;
+            numPages++;
+
+            // Collect rows from Cassandra, prefetching the next page of search results meanwhile
             collectTime.start();
-            for (Row row : rows(searchResults, timestamp, relevance)) {
-                if (row != null && accepted(row, expressions)) {
-                    rows.add(row);
+            ListenableFuture<List<Row>> fetch = fetch(searchResults, timestamp, relevance);
+            searchResults = prefetch && maybeMore
+                            ? search(query, sort, last, page, relevance, shards, luceneTime)
+                            : null;
+            for (Row row : Futures.getUnchecked(fetch)) {
+                if (row != null) {
+                    numFetched++;
+                    if (accepted(row, expressions)) {
+                        rows.add(row);
+                    } else {
+                        numRejected++;
+                    }
                 }
             }
             collectTime.stop();
 
-            // Setup next iteration
-            maybeMore = searchResults.size() == page;
-            page = Math.min(Math.max(FILTERING_PAGE_SIZE, rows.size() - limit), MAX_PAGE_SIZE);
-            numPages++;
-
             // Iterate while there are still documents to read and we don't have enough rows
         } while (maybeMore && rows.size() < limit);
 
@@ -316,10 +447,149 @@ public abstract class RowService {
         Log.debug("Cassandra time: %s", collectTime);
         Log.debug("Sort time: %s", sortTime);
         Log.debug("Collected %d docs and %d rows in %d pages in %s", numDocs, rows.size(), numPages, searchTime);
+        luceneIndex.getMetrics().recordSearch(searchTime.getNanoTime(),
+                                              luceneTime.getNanoTime(),
+                                              collectTime.getNanoTime(),
+                                              sortTime.getNanoTime(),
+                                              numDocs,
+                                              rows.size(),
+                                              numPages);
+
+        SlowSearchLog slowSearchLog = luceneIndex.getMetrics().getSlowSearchLog();
+        if (slowSearchLog.isSlow(searchTime.getNanoTime())) {
+            slowSearchLog.record(String.format("Slow search in %s: time=%dms lucene=%dms collect=%dms sort=%dms " +
+                                               "pages=%d docs=%d fetched=%d rejected=%d rows=%d " +
+                                               "range=%s query=%s search=%s",
+                                               indexName,
+                                               searchTime.getTime(),
+                                               luceneTime.getTime(),
+                                               collectTime.getTime(),
+                                               sortTime.getTime(),
+                                               numPages,
+                                               numDocs,
+                                               numFetched,
+                                               numRejected,
+                                               rows.size(),
+                                               dataRange.keyRange(),
+                                               query,
+                                               search.getJson()));
+        }
 
         return rows;
     }
 
+    /**
+     * Returns the {@link SearchResult}s of the specified page of the Lucene search.
+     *
+     * @param query     The Lucene {@link Query} to search for.
+     * @param sort      The Lucene {@link Sort} to be applied.
+     * @param after     The last {@link ScoreDoc} of the previous page.
+     * @param page      The max number of {@link SearchResult}s to be returned.
+     * @param relevance If the search uses relevance.
+     * @param shards    The indexes of the index shards to be searched.
+     * @param time      The {@link TimeCounter} for measuring the Lucene time.
+     * @return The {@link SearchResult}s of the specified page.
+     */
+    private List<SearchResult> search(Query query,
+                                      Sort sort,
+                                      ScoreDoc after,
+                                      int page,
+                                      boolean relevance,
+                                      BitSet shards,
+                                      TimeCounter time) throws IOException {
+        time.start();
+        try {
+            return luceneIndex.search(query, sort, after, page, relevance, rowMapper, shards);
+        } finally {
+            time.stop();
+        }
+    }
+
+    /**
+     * Starts the retrieval of the {@link Row}s identified by the specified {@link SearchResult}s. If there is a fetch
+     * executor, the {@link SearchResult}s are split into the groups returned by {@link #fetchGroups(List)}, which are
+     * read concurrently. Otherwise, the {@link Row}s are read by the calling thread. In both cases the {@link Row}s are
+     * returned in the same order as their {@link SearchResult}s.
+     *
+     * @param searchResults The {@link SearchResult}s
+     * @param timestamp     The time stamp to ignore deleted columns.
+     * @param usesRelevance If the search uses relevance.
+     * @return The future {@link Row}s identified by the specified {@link SearchResult}s.
+     */
+    private ListenableFuture<List<Row>> fetch(List<SearchResult> searchResults,
+                                              final long timestamp,
+                                              final boolean usesRelevance) {
+        final long startTime = System.nanoTime();
+        final IndexMetrics metrics = luceneIndex.getMetrics();
+
+        if (fetchExecutor == null) {
+            List<Row> rows = rows(searchResults, timestamp, usesRelevance);
+            long elapsedTime = System.nanoTime() - startTime;
+            metrics.recordFetch(elapsedTime, elapsedTime);
+            return Futures.immediateFuture(rows);
+        }
+
+        final AtomicLong readTime = new AtomicLong();
+        List<ListenableFuture<List<Row>>> futures = new ArrayList<>();
+        for (final List<SearchResult> group : fetchGroups(searchResults)) {
+            futures.add(fetchExecutor.submit(new Callable<List<Row>>() {
+                @Override
+                public List<Row> call() throws Exception {
+                    long groupStartTime = System.nanoTime();
+                    List<Row> rows = rows(group, timestamp, usesRelevance);
+                    readTime.addAndGet(System.nanoTime() - groupStartTime);
+                    return rows;
+                }
+            }));
+        }
+        return Futures.transform(Futures.allAsList(futures), new Function<List<List<Row>>, List<Row>>() {
+            @Override
+            public List<Row> apply(List<List<Row>> groups) {
+                List<Row> rows = new ArrayList<>();
+                for (List<Row> group : groups) {
+                    rows.addAll(group);
+                }
+                metrics.recordFetch(System.nanoTime() - startTime, readTime.get());
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * Returns the specified {@link SearchResult}s split into groups that can be read concurrently by the fetch
+     * executor, keeping their order. This default implementation returns a single group.
+     *
+     * @param searchResults The {@link SearchResult}s to be split.
+     * @return The groups of {@link SearchResult}s that can be read concurrently.
+     */
+    protected List<List<SearchResult>> fetchGroups(List<SearchResult> searchResults) {
+        return Collections.singletonList(searchResults);
+    }
+
+    /**
+     * Returns the Lucene {@link Query} for the specified {@link CompiledSearch} restricted to the specified range
+     * {@link Query} and to the specified {@link IndexExpression}s that can be satisfied by Lucene. This way, the rows
+     * that don't satisfy the mapped {@link IndexExpression}s are not read nor paginated. However, the read rows are
+     * still checked against all the {@link IndexExpression}s with {@link #accepted(Row, List)}, because the near real
+     * time index could not reflect the latest writes nor the expired cells.
+     *
+     * @param search      The {@link CompiledSearch} to be performed.
+     * @param rangeQuery  The range {@link Query} to be satisfied, maybe {@code null} meaning no range.
+     * @param expressions A list of filtering {@link IndexExpression}s to be satisfied.
+     * @return The Lucene {@link Query} to be run.
+     */
+    private Query query(CompiledSearch search, Query rangeQuery, List<IndexExpression> expressions) {
+        Query query = search.query(rangeQuery);
+        Query expressionsQuery = expressionMapper.query(expressions);
+        if (expressionsQuery == null) {
+            return query;
+        }
+        BooleanQuery booleanQuery = new BooleanQuery();
+        booleanQuery.add(query, BooleanClause.Occur.MUST);
+        booleanQuery.add(expressionsQuery, BooleanClause.Occur.FILTER);
+        return booleanQuery;
+    }
+
     /**
      * Returns {@code true} if the specified {@link Row} satisfies the all the specified {@link IndexExpression}s,
      * {@code false} otherwise.
@@ -417,7 +687,9 @@ public abstract class RowService {
     }
 
     /**
-     * Adds to the specified {@link Row} the specified Lucene score column.
+     * Adds to the specified {@link Row} the specified Lucene score column. The score is stored in the indexed column as
+     * UTF-8 text, or in the binary format described in {@link #encodeScore(float)} if the index is configured to use
+     * binary scores. It is added in place, so the {@link Row} must not be shared.
      *
      * @param row       A {@link Row}.
      * @param timestamp The score column timestamp.
@@ -427,13 +699,48 @@ public abstract class RowService {
     protected Row addScoreColumn(Row row, long timestamp, Float score) {
         ColumnFamily cf = row.cf;
         CellName cellName = rowMapper.makeCellName(cf);
-        ByteBuffer cellValue = UTF8Type.instance.decompose(score.toString());
+        ByteBuffer cellValue = binaryScores ? encodeScore(score) : UTF8Type.instance.decompose(score.toString());
+        cf.addColumn(cellName, cellValue, timestamp);
+        return row;
+    }
 
-        ColumnFamily dcf = ArrayBackedSortedColumns.factory.create(baseCfs.metadata);
-        dcf.addColumn(cellName, cellValue, timestamp);
-        dcf.addAll(row.cf);
+    /**
+     * Returns the binary representation of the specified score, which is a {@link #BINARY_SCORE_MARKER} byte followed
+     * by the 4-byte float. The leading marker distinguishes it from the UTF-8 text scores, which never start with it.
+     *
+     * @param score A score.
+     * @return The binary representation of {@code score}.
+     */
+    static ByteBuffer encodeScore(float score) {
+        ByteBuffer value = ByteBuffer.allocate(5);
+        value.put(0, BINARY_SCORE_MARKER);
+        value.putFloat(1, score);
+        return value;
+    }
 
-        return new Row(row.key, dcf);
+    /**
+     * Returns the score represented by the specified score column value, which can be either in the binary format
+     * generated by {@link #encodeScore(float)} or in UTF-8 text format.
+     *
+     * @param value A score column value.
+     * @return The score represented by {@code value}.
+     */
+    static float decodeScore(ByteBuffer value) {
+        if (isBinaryScore(value)) {
+            return value.getFloat(value.position() + 1);
+        }
+        return Float.parseFloat(UTF8Type.instance.compose(value));
+    }
+
+    /**
+     * Returns {@code true} if the specified score column value is in the binary format generated by {@link
+     * #encodeScore(float)}, {@code false} if it is in UTF-8 text format.
+     *
+     * @param value A score column value.
+     * @return {@code true} if {@code value} is a binary score, {@code false} otherwise.
+     */
+    static boolean isBinaryScore(ByteBuffer value) {
+        return value.remaining() == 5 && value.get(value.position()) == BINARY_SCORE_MARKER;
     }
 
     /**
@@ -477,8 +784,83 @@ public abstract class RowService {
         ColumnFamily cf = row.cf;
         CellName cellName = rowMapper.makeCellName(cf);
         Cell cell = cf.getColumn(cellName);
-        String value = UTF8Type.instance.compose(cell.value());
-        return Float.parseFloat(value);
+        return decodeScore(cell.value());
+    }
+
+    /**
+     * Sorts the specified {@link Row}s obtained from the specified {@link Search} according to its field sorting or
+     * relevance. The sort key of each {@link Row} is computed only once.
+     *
+     * @param rows   The {@link Row}s to be sorted.
+     * @param search The {@link Search} used to find {@code rows}.
+     */
+    public void sort(List<Row> rows, Search search) {
+        if (search.usesSorting()) {
+            new RowComparatorSorting(rowMapper, search.getSort()).sort(rows);
+        } else if (search.usesRelevance()) {
+            sortByScore(rows);
+        } else {
+            Collections.sort(rows, comparator());
+        }
+    }
+
+    /**
+     * Sorts the specified scored {@link Row}s by descending score. The score of each {@link Row} is decoded only once.
+     *
+     * @param rows The {@link Row}s to be sorted.
+     */
+    public void sortByScore(List<Row> rows) {
+        final Row[] sortedRows = rows.toArray(new Row[rows.size()]);
+        final float[] scores = new float[sortedRows.length];
+        Integer[] positions = new Integer[sortedRows.length];
+        for (int i = 0; i < sortedRows.length; i++) {
+            scores[i] = score(sortedRows[i]);
+            positions[i] = i;
+        }
+        Arrays.sort(positions, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer position1, Integer position2) {
+                return Float.compare(scores[position2], scores[position1]);
+            }
+        });
+        for (int i = 0; i < positions.length; i++) {
+            rows.set(i, sortedRows[positions[i]]);
+        }
+    }
+
+    /**
+     * Replaces the binary score column of the specified scored {@link Row}s with its human-readable text version,
+     * which is the one to be returned to clients. Text score columns are left as they are.
+     *
+     * @param rows The scored {@link Row}s.
+     */
+    public void formatScores(List<Row> rows) {
+        for (Row row : rows) {
+            ColumnFamily cf = row.cf;
+            CellName cellName = rowMapper.makeCellName(cf);
+            Cell cell = cf.getColumn(cellName);
+            if (cell != null && isBinaryScore(cell.value())) {
+                Float score = score(row);
+                BatchRemoveIterator<Cell> iterator = cf.batchRemoveIterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().name().equals(cellName)) {
+                        iterator.remove();
+                        break;
+                    }
+                }
+                iterator.commit();
+                cf.addColumn(cellName, UTF8Type.instance.decompose(score.toString()), cell.timestamp());
+            }
+        }
+    }
+
+    /**
+     * Returns if the index should be rebuilt because its on-disk format was outdated.
+     *
+     * @return {@code true} if the index should be rebuilt, {@code false} otherwise.
+     */
+    public boolean needsRebuild() {
+        return luceneIndex.needsRebuild();
     }
 
     /**
@@ -15,6 +15,7 @@
  */
 package com.stratio.cassandra.lucene.service;
 
+import com.google.common.collect.Lists;
 import org.apache.cassandra.config.ColumnDefinition;
 import org.apache.cassandra.db.ColumnFamily;
 import org.apache.cassandra.db.ColumnFamilyStore;
@@ -27,9 +28,7 @@ import org.apache.lucene.index.Term;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * {@link RowService} that manages simple rows.
@@ -38,14 +37,6 @@ import java.util.Set;
  */
 public class RowServiceSkinny extends RowService {
 
-    /** The names of the Lucene fields to be loaded. */
-    private static final Set<String> FIELDS_TO_LOAD;
-
-    static {
-        FIELDS_TO_LOAD = new HashSet<>();
-        FIELDS_TO_LOAD.add(PartitionKeyMapper.FIELD_NAME);
-    }
-
     /** The used row mapper. */
     private final RowMapperSkinny rowMapper;
 
@@ -63,39 +54,32 @@ public class RowServiceSkinny extends RowService {
 
     /**
      * {@inheritDoc}
-     * <p/>
-     * These fields are just the partition key.
      */
     @Override
-    public Set<String> fieldsToLoad() {
-        return FIELDS_TO_LOAD;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public void doIndex(ByteBuffer key, ColumnFamily columnFamily, long timestamp) throws IOException {
+    public void doIndex(ByteBuffer key, ColumnFamily columnFamily, long timestamp, IndexWriteBatch batch)
+    throws IOException {
         DecoratedKey partitionKey = rowMapper.partitionKey(key);
 
         if (columnFamily.iterator().hasNext()) // Create or update row
         {
+            long startTime = System.nanoTime();
             Row row = row(partitionKey, timestamp); // Read row
+            luceneIndex.getMetrics().recordReadBeforeWrite(System.nanoTime() - startTime);
             Document document = rowMapper.document(row);
             Term term = rowMapper.term(partitionKey);
-            luceneIndex.upsert(term, document); // Store document
+            batch.upsert(shard(partitionKey), term, document); // Store document
         } else if (columnFamily.deletionInfo() != null) // Delete full row
         {
             Term term = rowMapper.term(partitionKey);
-            luceneIndex.delete(term);
+            batch.delete(shard(partitionKey), term);
         }
     }
 
     /** {@inheritDoc} */
     @Override
-    public void doDelete(DecoratedKey partitionKey) throws IOException {
+    public void doDelete(DecoratedKey partitionKey, IndexWriteBatch batch) throws IOException {
         Term term = rowMapper.term(partitionKey);
-        luceneIndex.delete(term);
+        batch.delete(shard(partitionKey), term);
     }
 
     /** {@inheritDoc} */
@@ -108,7 +92,7 @@ public class RowServiceSkinny extends RowService {
             Row row = row(partitionKey, timestamp);
 
             if (row == null) {
-                return null;
+                continue;
             }
 
             // Return decorated row
@@ -123,6 +107,16 @@ public class RowServiceSkinny extends RowService {
         return rows;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Each row is an independent partition, so each one can be read concurrently.
+     */
+    @Override
+    protected List<List<SearchResult>> fetchGroups(List<SearchResult> searchResults) {
+        return Lists.partition(searchResults, 1);
+    }
+
     /**
      * Returns the CQL3 {@link Row} identified by the specified key pair, using the specified time stamp to ignore
      * deleted columns. The {@link Row} is retrieved from the storage engine, so it involves IO operations.
@@ -42,15 +42,6 @@ import java.util.*;
  */
 public class RowServiceWide extends RowService {
 
-    /** The names of the Lucene fields to be loaded. */
-    private static final Set<String> FIELDS_TO_LOAD;
-
-    static {
-        FIELDS_TO_LOAD = new HashSet<>();
-        FIELDS_TO_LOAD.add(PartitionKeyMapper.FIELD_NAME);
-        FIELDS_TO_LOAD.add(ClusteringKeyMapper.FIELD_NAME);
-    }
-
     /** The used row mapper. */
     private final RowMapperWide rowMapper;
 
@@ -66,31 +57,24 @@ public class RowServiceWide extends RowService {
         luceneIndex.init(rowMapper.sort());
     }
 
-    /**
-     * {@inheritDoc}
-     * <p/>
-     * These fields are the partition and clustering keys.
-     */
-    @Override
-    public Set<String> fieldsToLoad() {
-        return FIELDS_TO_LOAD;
-    }
-
     /** {@inheritDoc} */
     @Override
-    public void doIndex(ByteBuffer key, ColumnFamily columnFamily, long timestamp) throws IOException {
+    public void doIndex(ByteBuffer key, ColumnFamily columnFamily, long timestamp, IndexWriteBatch batch)
+    throws IOException {
         DeletionInfo deletionInfo = columnFamily.deletionInfo();
         DecoratedKey partitionKey = rowMapper.partitionKey(key);
 
         if (columnFamily.iterator().hasNext()) {
             List<CellName> clusteringKeys = rowMapper.clusteringKeys(columnFamily);
-            Map<CellName, Row> rows = rows(partitionKey, clusteringKeys, timestamp);
+            long startTime = System.nanoTime();
+            Map<CellName, Row> rows = rows(partitionKey, clusteringKeys, timestamp); // Read rows
+            luceneIndex.getMetrics().recordReadBeforeWrite(System.nanoTime() - startTime);
             for (Map.Entry<CellName, Row> entry : rows.entrySet()) {
                 CellName clusteringKey = entry.getKey();
                 Row row = entry.getValue();
                 Document document = rowMapper.document(row);
                 Term term = rowMapper.term(partitionKey, clusteringKey);
-                luceneIndex.upsert(term, document); // Store document
+                batch.upsert(shard(partitionKey), term, document); // Store document
             }
         } else if (deletionInfo != null) {
             Iterator<RangeTombstone> iterator = deletionInfo.rangeIterator();
@@ -98,20 +82,20 @@ public class RowServiceWide extends RowService {
                 while (iterator.hasNext()) {
                     RangeTombstone rangeTombstone = iterator.next();
                     Query query = rowMapper.query(partitionKey, rangeTombstone);
-                    luceneIndex.delete(query);
+                    batch.delete(shard(partitionKey), query);
                 }
             } else {
                 Term term = rowMapper.term(partitionKey);
-                luceneIndex.delete(term);
+                batch.delete(shard(partitionKey), term);
             }
         }
     }
 
     /** {@inheritDoc} */
     @Override
-    public void doDelete(DecoratedKey partitionKey) throws IOException {
+    public void doDelete(DecoratedKey partitionKey, IndexWriteBatch batch) throws IOException {
         Term term = rowMapper.term(partitionKey);
-        luceneIndex.delete(term);
+        batch.delete(shard(partitionKey), term);
     }
 
     /**
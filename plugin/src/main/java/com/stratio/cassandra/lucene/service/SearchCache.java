@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.stratio.cassandra.lucene.query.Search;
+import com.stratio.cassandra.lucene.query.builder.SearchBuilder;
+import com.stratio.cassandra.lucene.schema.Schema;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded concurrent LRU cache of {@link CompiledSearch}s, keyed by the JSON representation of the {@link Search} and
+ * the version of the Cassandra schema used to compile it.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SearchCache {
+
+    private final Cache<Key, CompiledSearch> cache;
+
+    /**
+     * Returns a new {@link SearchCache} holding up to the specified number of {@link CompiledSearch}s.
+     *
+     * @param maxSize The max number of cached {@link CompiledSearch}s, where {@code 0} means no caching.
+     */
+    public SearchCache(int maxSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    /**
+     * Returns the {@link CompiledSearch} for the specified JSON {@link Search} representation, compiling it with the
+     * specified {@link Schema} if it is not already cached.
+     *
+     * @param json          A JSON {@link Search} representation.
+     * @param schemaVersion The current Cassandra schema version, maybe {@code null}.
+     * @param schema        The {@link Schema} to be used for compiling.
+     * @return The {@link CompiledSearch} for {@code json}.
+     */
+    public CompiledSearch get(final String json, UUID schemaVersion, final Schema schema) {
+        try {
+            return cache.get(new Key(json, schemaVersion), new Callable<CompiledSearch>() {
+                @Override
+                public CompiledSearch call() throws Exception {
+                    Search search = SearchBuilder.fromJson(json).build();
+                    return new CompiledSearch(json, search, schema);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Discards all the cached {@link CompiledSearch}s.
+     */
+    public void invalidate() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of cached {@link CompiledSearch}s.
+     *
+     * @return The number of cached {@link CompiledSearch}s.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the number of times a requested {@link CompiledSearch} has been found in this cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * Returns the number of times a requested {@link CompiledSearch} has not been found in this cache.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * Returns the number of {@link CompiledSearch}s evicted from this cache due to its size limit.
+     *
+     * @return The number of cache evictions.
+     */
+    public long getEvictions() {
+        return cache.stats().evictionCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        CacheStats stats = cache.stats();
+        return Objects.toStringHelper(this)
+                      .add("size", cache.size())
+                      .add("hits", stats.hitCount())
+                      .add("misses", stats.missCount())
+                      .add("evictions", stats.evictionCount())
+                      .toString();
+    }
+
+    /**
+     * The key of a cached {@link CompiledSearch}.
+     */
+    private static final class Key {
+
+        private final String json;
+        private final UUID schemaVersion;
+
+        private Key(String json, UUID schemaVersion) {
+            this.json = json;
+            this.schemaVersion = schemaVersion;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return json.equals(key.json) && Objects.equal(schemaVersion, key.schemaVersion);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(json, schemaVersion);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.stratio.cassandra.lucene.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Log of the searches taking longer than a certain threshold. The descriptions of the slow searches are written to the
+ * system log at a limited rate, so a burst of slow searches can't flood it, and the most recent of them are kept in a
+ * fixed-size in-memory ring buffer to be read through JMX.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SlowSearchLog {
+
+    /** The number of slow searches kept in memory. */
+    static final int CAPACITY = 32;
+
+    /** The max number of slow searches written to the system log per second. */
+    static final double MAX_LOGS_PER_SECOND = 1;
+
+    private final long thresholdNanos;
+    private final RateLimiter rateLimiter;
+    private final AtomicReferenceArray<String> entries;
+    private final AtomicLong count;
+
+    /**
+     * Builds a new {@link SlowSearchLog} for the searches taking at least the specified time.
+     *
+     * @param thresholdMillis The min search time in milliseconds for a search to be considered slow, where {@code 0}
+     *                        means that no search is considered slow.
+     */
+    public SlowSearchLog(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.rateLimiter = RateLimiter.create(MAX_LOGS_PER_SECOND);
+        this.entries = new AtomicReferenceArray<>(CAPACITY);
+        this.count = new AtomicLong();
+    }
+
+    /**
+     * Returns if a search taking the specified time is slow.
+     *
+     * @param searchNanos A search time in nanoseconds.
+     * @return {@code true} if the search is slow, {@code false} otherwise.
+     */
+    public boolean isSlow(long searchNanos) {
+        return thresholdNanos > 0 && searchNanos >= thresholdNanos;
+    }
+
+    /**
+     * Records the specified slow search description, writing it to the system log if the rate limit allows it.
+     *
+     * @param entry The description of a slow search.
+     */
+    public void record(String entry) {
+        long position = count.getAndIncrement();
+        entries.set((int) (position % CAPACITY), entry);
+        if (rateLimiter.tryAcquire()) {
+            Log.warn("%s", entry);
+        }
+    }
+
+    /**
+     * Returns the number of slow searches recorded.
+     *
+     * @return The number of slow searches recorded.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the descriptions of the most recent slow searches, from the oldest to the newest.
+     *
+     * @return The descriptions of the most recent slow searches.
+     */
+    public List<String> getEntries() {
+        long end = count.get();
+        long start = Math.max(0, end - CAPACITY);
+        List<String> result = new ArrayList<>(CAPACITY);
+        for (long position = start; position < end; position++) {
+            String entry = entries.get((int) (position % CAPACITY));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+}
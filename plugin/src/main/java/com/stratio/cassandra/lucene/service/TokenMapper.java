@@ -25,6 +25,8 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SortField;
 
+import java.util.BitSet;
+
 /**
  * Class for several row partitioning {@link Token} mappings between Cassandra and Lucene.
  *
@@ -112,6 +114,34 @@ public abstract class TokenMapper {
      */
     public abstract SortField[] sortFields();
 
+    /**
+     * Returns the index of the shard containing the documents with the specified {@link Token} in an index split in the
+     * specified number of shards.
+     *
+     * @param token     A {@link Token}.
+     * @param numShards The number of shards.
+     * @return The index of the shard containing the documents with {@code token}.
+     */
+    public int shard(Token token, int numShards) {
+        return (token.hashCode() & Integer.MAX_VALUE) % numShards;
+    }
+
+    /**
+     * Returns the indexes of the shards that may contain documents inside the specified {@link Token} range in an index
+     * split in the specified number of shards. All the shards are returned unless the partitioner supports sharding by
+     * token ranges.
+     *
+     * @param lower     The lower {@link Token} of the range.
+     * @param upper     The upper {@link Token} of the range, the minimum one means no upper limit.
+     * @param numShards The number of shards.
+     * @return The indexes of the shards that may contain documents inside the {@link Token} range.
+     */
+    public BitSet shards(Token lower, Token upper, int numShards) {
+        BitSet shards = new BitSet(numShards);
+        shards.set(0, numShards);
+        return shards;
+    }
+
     /**
      * Returns {@code true} if the specified lower row position kind must be included in the filtered range, {@code
      * false} otherwise.
@@ -15,29 +15,37 @@
  */
 package com.stratio.cassandra.lucene.service;
 
+import com.stratio.cassandra.lucene.util.BinaryTokenStream;
 import com.stratio.cassandra.lucene.util.ByteBufferUtils;
 import org.apache.cassandra.config.DatabaseDescriptor;
 import org.apache.cassandra.db.DecoratedKey;
+import org.apache.cassandra.dht.BigIntegerToken;
+import org.apache.cassandra.dht.ByteOrderedPartitioner;
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.cassandra.dht.RandomPartitioner;
 import org.apache.cassandra.dht.Token;
 import org.apache.cassandra.dht.Token.TokenFactory;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
-import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.FieldComparatorSource;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRef;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
 /**
  * {@link TokenMapper} to be used when any {@link org.apache.cassandra.dht.IPartitioner} when there is not a more
- * specific implementation. It indexes the token raw binary value as a Lucene string field.
+ * specific implementation. It indexes the token binary value as a Lucene string field. The tokens of {@link
+ * RandomPartitioner} and {@link ByteOrderedPartitioner} are indexed with an order-preserving encoding, so their ranges
+ * are sought and they are sorted as bytes. The tokens of any other partitioner are decoded to be compared.
  *
  * @author Andres de la Pena <adelapena@stratio.com>
  */
@@ -45,28 +53,55 @@ public class TokenMapperGeneric extends TokenMapper {
 
     public static final String FIELD_NAME = "_token_generic"; // The Lucene field name
 
+    private static final int RANDOM_TOKEN_LENGTH = 16; // The length of the encoded RandomPartitioner tokens
+
+    private final IPartitioner partitioner; // The partitioner
     private final TokenFactory factory; // The partitioner token factory
+    private final boolean orderPreserving; // If the tokens are indexed with an order-preserving encoding
 
     /** Returns a new {@link TokenMapperGeneric}. */
     public TokenMapperGeneric() {
+        this(DatabaseDescriptor.getPartitioner());
+    }
+
+    /**
+     * Returns a new {@link TokenMapperGeneric} for the specified {@link IPartitioner}.
+     *
+     * @param partitioner The partitioner generating the tokens.
+     */
+    TokenMapperGeneric(IPartitioner partitioner) {
         super();
-        factory = DatabaseDescriptor.getPartitioner().getTokenFactory();
+        this.partitioner = partitioner;
+        factory = partitioner.getTokenFactory();
+        orderPreserving = partitioner instanceof RandomPartitioner || partitioner instanceof ByteOrderedPartitioner;
     }
 
     /** {@inheritDoc} */
     @Override
     public void addFields(Document document, DecoratedKey partitionKey) {
-        ByteBuffer bb = factory.toByteArray(partitionKey.getToken());
-        String serialized = ByteBufferUtils.toString(bb);
-        BytesRef bytesRef = new BytesRef(serialized);
-        document.add(new StringField(FIELD_NAME, serialized, Store.NO));
+        BytesRef bytesRef = bytesRef(partitionKey.getToken());
+        document.add(new Field(FIELD_NAME, new BinaryTokenStream(bytesRef), BinaryTokenStream.FIELD_TYPE));
         document.add(new SortedDocValuesField(FIELD_NAME, bytesRef));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isMinimum(Token token) {
+        return token.isMinimum(partitioner);
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Query makeQuery(Token lower, Token upper, boolean includeLower, boolean includeUpper) {
-        return new TokenQuery(lower, upper, includeLower, includeUpper, this);
+        if (!orderPreserving) {
+            return new TokenQuery(lower, upper, includeLower, includeUpper, this);
+        }
+        BytesRef start = lower == null || isMinimum(lower) ? null : bytesRef(lower);
+        BytesRef stop = upper == null || isMinimum(upper) ? null : bytesRef(upper);
+        if (start == null && stop == null) {
+            return null;
+        }
+        return new TermRangeQuery(FIELD_NAME, start, stop, includeLower, includeUpper);
     }
 
     /** {@inheritDoc} */
@@ -80,6 +115,9 @@ public class TokenMapperGeneric extends TokenMapper {
     /** {@inheritDoc} */
     @Override
     public SortField[] sortFields() {
+        if (orderPreserving) {
+            return new SortField[]{new SortField(FIELD_NAME, SortField.Type.STRING)};
+        }
         return new SortField[]{new SortField(FIELD_NAME, new FieldComparatorSource() {
             @Override
             public FieldComparator<?> newComparator(String field, int hits, int sort, boolean reversed)
@@ -101,8 +139,12 @@ public class TokenMapperGeneric extends TokenMapper {
      * @return The Cassandra {@link Token} represented by the specified Lucene {@link BytesRef}.
      */
     Token token(BytesRef bytesRef) {
-        String string = bytesRef.utf8ToString();
-        ByteBuffer bb = ByteBufferUtils.fromString(string);
+        if (partitioner instanceof RandomPartitioner) {
+            byte[] bytes = new byte[bytesRef.length];
+            System.arraycopy(bytesRef.bytes, bytesRef.offset, bytes, 0, bytesRef.length);
+            return new BigIntegerToken(new BigInteger(1, bytes));
+        }
+        ByteBuffer bb = ByteBufferUtils.byteBuffer(bytesRef);
         return factory.fromByteArray(bb);
     }
 
@@ -113,9 +155,16 @@ public class TokenMapperGeneric extends TokenMapper {
      * @return The Lucene {@link BytesRef} represented by the specified Cassandra {@link Token}.
      */
     public BytesRef bytesRef(Token token) {
+        if (partitioner instanceof RandomPartitioner) {
+            // Fixed length unsigned big-endian, given that the tokens are between zero and 2^127
+            byte[] value = ((BigInteger) token.getTokenValue()).toByteArray();
+            int length = Math.min(value.length, RANDOM_TOKEN_LENGTH);
+            byte[] bytes = new byte[RANDOM_TOKEN_LENGTH];
+            System.arraycopy(value, value.length - length, bytes, RANDOM_TOKEN_LENGTH - length, length);
+            return new BytesRef(bytes);
+        }
         ByteBuffer bb = factory.toByteArray(token);
-        byte[] bytes = ByteBufferUtils.asArray(bb);
-        return new BytesRef(bytes);
+        return ByteBufferUtils.bytesRef(bb);
     }
 
 }
@@ -26,6 +26,8 @@ import org.apache.lucene.search.NumericRangeQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SortField;
 
+import java.util.BitSet;
+
 /**
  * {@link PartitionKeyMapper} to be used when {@link org.apache.cassandra.dht.Murmur3Partitioner} is used. It indexes
  * the token long value as a Lucene long field.
@@ -60,6 +62,17 @@ public class TokenMapperMurmur extends TokenMapper {
         document.add(new LongField(FIELD_NAME, value, FIELD_TYPE));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The minimum Murmur3 token is {@link Long#MIN_VALUE}, so it is checked without looking up the partitioner in the
+     * node configuration.
+     */
+    @Override
+    public boolean isMinimum(Token token) {
+        return (Long) token.getTokenValue() == Long.MIN_VALUE;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Query query(Token token) {
@@ -72,10 +85,10 @@ public class TokenMapperMurmur extends TokenMapper {
     protected Query makeQuery(Token lower, Token upper, boolean includeLower, boolean includeUpper) {
         Long start = lower == null ? null : (Long) lower.getTokenValue();
         Long stop = upper == null ? null : (Long) upper.getTokenValue();
-        if (lower != null && lower.isMinimum()) {
+        if (lower != null && isMinimum(lower)) {
             start = null;
         }
-        if (upper != null && upper.isMinimum()) {
+        if (upper != null && isMinimum(upper)) {
             stop = null;
         }
         if (start == null && stop == null) {
@@ -84,6 +97,34 @@ public class TokenMapperMurmur extends TokenMapper {
         return NumericRangeQuery.newLongRange(FIELD_NAME, start, stop, includeLower, includeUpper);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Each shard contains a contiguous range of tokens, so token range queries can be restricted to the shards
+     * overlapping the range.
+     */
+    @Override
+    public int shard(Token token, int numShards) {
+        long value = (Long) token.getTokenValue();
+        long offset = value ^ Long.MIN_VALUE; // Unsigned distance to the minimum token
+        return (int) (((offset >>> 32) * numShards) >>> 32);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BitSet shards(Token lower, Token upper, int numShards) {
+        BitSet shards = new BitSet(numShards);
+        int first = shard(lower, numShards);
+        int last = isMinimum(upper) ? numShards - 1 : shard(upper, numShards);
+        if (isMinimum(upper) || lower.compareTo(upper) <= 0) {
+            shards.set(first, last + 1);
+        } else { // Wrapping range
+            shards.set(first, numShards);
+            shards.set(0, last + 1);
+        }
+        return shards;
+    }
+
     /** {@inheritDoc} */
     @Override
     public SortField[] sortFields() {
@@ -15,6 +15,7 @@
  */
 package com.stratio.cassandra.lucene.service;
 
+import com.google.common.base.Objects;
 import org.apache.cassandra.dht.Token;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.lucene.index.FilteredTermsEnum;
@@ -27,7 +28,8 @@ import org.apache.lucene.util.BytesRef;
 import java.io.IOException;
 
 /**
- * Generic query for retrieving a range of tokens in combination with {@link TokenMapperGeneric}.
+ * Generic query for retrieving a range of tokens in combination with {@link TokenMapperGeneric}, decoding each token
+ * term. It is only used with partitioners whose tokens are not indexed with an order-preserving encoding.
  *
  * @author Andres de la Pena <adelapena@stratio.com>
  */
@@ -79,6 +81,28 @@ public class TokenQuery extends MultiTermQuery {
                                         .toString();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        TokenQuery query = (TokenQuery) o;
+        return includeLower == query.includeLower &&
+               includeUpper == query.includeUpper &&
+               Objects.equal(lower, query.lower) &&
+               Objects.equal(upper, query.upper);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(lower, upper, includeLower, includeUpper);
+    }
+
     /**
      * {@link FilteredTermsEnum} for generic tokens.
      */
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.TermToBytesRefAttribute;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.util.AttributeImpl;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * {@link TokenStream} producing a single binary term. This allows to index raw bytes as a Lucene term, given that
+ * fields with {@link BytesRef} values can't be indexed.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public final class BinaryTokenStream extends TokenStream {
+
+    /** The type of the not stored fields indexing a {@link BinaryTokenStream}. */
+    public static final FieldType FIELD_TYPE = new FieldType();
+
+    static {
+        FIELD_TYPE.setIndexOptions(IndexOptions.DOCS);
+        FIELD_TYPE.setOmitNorms(true);
+        FIELD_TYPE.setTokenized(true);
+        FIELD_TYPE.setStored(false);
+        FIELD_TYPE.freeze();
+    }
+
+    private final ByteTermAttribute bytesAtt = addAttribute(ByteTermAttribute.class);
+    private final BytesRef bytes;
+    private boolean available = true;
+
+    /**
+     * Builds a new {@link TokenStream} producing the specified term.
+     *
+     * @param bytes The raw bytes of the term.
+     */
+    public BinaryTokenStream(BytesRef bytes) {
+        this.bytes = bytes;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean incrementToken() {
+        if (available) {
+            clearAttributes();
+            available = false;
+            bytesAtt.setBytesRef(bytes);
+            return true;
+        }
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reset() {
+        available = true;
+    }
+
+    /** Attribute containing the binary term. */
+    public interface ByteTermAttribute extends TermToBytesRefAttribute {
+
+        /**
+         * Sets the binary term.
+         *
+         * @param bytes The raw bytes of the term.
+         */
+        void setBytesRef(BytesRef bytes);
+    }
+
+    /** Implementation of {@link ByteTermAttribute}. */
+    public static class ByteTermAttributeImpl extends AttributeImpl
+            implements ByteTermAttribute, TermToBytesRefAttribute {
+
+        private final BytesRef term = new BytesRef();
+        private BytesRef bytes;
+
+        /** {@inheritDoc} */
+        @Override
+        public void fillBytesRef() {
+            term.bytes = bytes.bytes;
+            term.offset = bytes.offset;
+            term.length = bytes.length;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public BytesRef getBytesRef() {
+            return term;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setBytesRef(BytesRef bytes) {
+            this.bytes = bytes;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void clear() {
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void copyTo(AttributeImpl target) {
+            ((ByteTermAttributeImpl) target).bytes = bytes;
+        }
+    }
+}
@@ -19,8 +19,10 @@ import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.db.marshal.CompositeType;
 import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.cassandra.utils.Hex;
+import org.apache.lucene.util.BytesRef;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -90,25 +92,25 @@ public class ByteBufferUtils {
     }
 
     /**
-     * Returns a {@code String} representation of {@code byteBuffer}.
+     * Returns a {@link BytesRef} containing a copy of the bytes of {@code byteBuffer}.
      *
-     * @param byteBuffer the {@link ByteBuffer} to be converted to {@link String}.
-     * @return a {@code String} representation of {@code byteBuffer}.
+     * @param byteBuffer the {@link ByteBuffer} to be converted to {@link BytesRef}.
+     * @return a {@link BytesRef} containing a copy of the bytes of {@code byteBuffer}.
      */
-    public static String toString(ByteBuffer byteBuffer) {
-        return Base256Serializer.string(byteBuffer);
+    public static BytesRef bytesRef(ByteBuffer byteBuffer) {
+        return new BytesRef(asArray(byteBuffer));
     }
 
     /**
-     * Returns the {@link ByteBuffer} represented by {@code string}, which must be have generated by {@link
-     * #toString(ByteBuffer)}.
+     * Returns a {@link ByteBuffer} containing a copy of the bytes of {@code bytesRef}, so it can be safely kept even if
+     * the {@link BytesRef} is reused.
      *
-     * @param string the {@link String} to be converted to {@link ByteBuffer}. This must be have generated by {@link
-     *               #toString(ByteBuffer)}.
-     * @return the {@link ByteBuffer} represented by {@code string}.
+     * @param bytesRef the {@link BytesRef} to be converted to {@link ByteBuffer}.
+     * @return a {@link ByteBuffer} containing a copy of the bytes of {@code bytesRef}.
      */
-    public static ByteBuffer fromString(String string) {
-        return Base256Serializer.byteBuffer(string);
+    public static ByteBuffer byteBuffer(BytesRef bytesRef) {
+        byte[] bytes = Arrays.copyOfRange(bytesRef.bytes, bytesRef.offset, bytesRef.offset + bytesRef.length);
+        return ByteBuffer.wrap(bytes);
     }
 
     public static String toHex(ByteBuffer byteBuffer) {
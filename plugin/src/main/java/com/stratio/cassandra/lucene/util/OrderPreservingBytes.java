@@ -0,0 +1,239 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util;
+
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.AsciiType;
+import org.apache.cassandra.db.marshal.BooleanType;
+import org.apache.cassandra.db.marshal.BytesType;
+import org.apache.cassandra.db.marshal.DateType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.ReversedType;
+import org.apache.cassandra.db.marshal.TimeUUIDType;
+import org.apache.cassandra.db.marshal.TimestampType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilities for encoding sequences of Cassandra values into byte arrays whose unsigned lexicographic order is the same
+ * as the order defined by the {@link AbstractType}s of the values. This allows to index composite values, such as
+ * clustering keys, as Lucene terms that can be sorted and sought without decoding them.
+ *
+ * Each component is transformed according to its type, its zero bytes are escaped as {@code 0x00 0xFF}, and it is
+ * terminated by {@code 0x00 0x00}, so no encoded component is a prefix of another. The bytes of the components with
+ * {@link ReversedType} are inverted and preceded by a header byte, which keeps empty values in the first place as
+ * {@link ReversedType} does.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class OrderPreservingBytes {
+
+    private static final byte TERMINATOR = (byte) 0x00;
+    private static final byte ESCAPE = (byte) 0xFF;
+    private static final byte SIGN = (byte) 0x80;
+    private static final byte REVERSED_EMPTY = (byte) 0x00;
+    private static final byte REVERSED_NOT_EMPTY = (byte) 0x01;
+    private static final int UUID_LENGTH = 16;
+    private static final int TIMESTAMP_LENGTH = 8;
+
+    /**
+     * Returns if the specified {@link AbstractType} can be encoded preserving its order.
+     *
+     * @param type A Cassandra type, maybe reversed.
+     * @return {@code true} if {@code type} can be encoded preserving its order, {@code false} otherwise.
+     */
+    public static boolean isSupported(AbstractType<?> type) {
+        AbstractType<?> baseType = baseType(type);
+        return baseType instanceof UTF8Type ||
+               baseType instanceof AsciiType ||
+               baseType instanceof BytesType ||
+               baseType instanceof BooleanType ||
+               baseType instanceof DateType ||
+               baseType instanceof TimestampType ||
+               baseType instanceof Int32Type ||
+               baseType instanceof LongType ||
+               baseType instanceof TimeUUIDType;
+    }
+
+    /**
+     * Returns if all the specified {@link AbstractType}s can be encoded preserving their order.
+     *
+     * @param types A list of Cassandra types, maybe reversed.
+     * @return {@code true} if all the {@code types} can be encoded preserving their order, {@code false} otherwise.
+     */
+    public static boolean isSupported(List<AbstractType<?>> types) {
+        for (AbstractType<?> type : types) {
+            if (!isSupported(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the order-preserving encoding of the specified components, which can be a prefix of {@code types}.
+     *
+     * @param types      The types of the components.
+     * @param components The components to be encoded.
+     * @return The order-preserving encoding of {@code components}.
+     */
+    public static BytesRef encode(List<AbstractType<?>> types, List<ByteBuffer> components) {
+        BytesRefBuilder builder = new BytesRefBuilder();
+        for (int i = 0; i < components.size(); i++) {
+            AbstractType<?> type = types.get(i);
+            ByteBuffer component = components.get(i);
+            byte mask = mask(type);
+            if (type instanceof ReversedType) {
+                if (!component.hasRemaining()) {
+                    builder.append(REVERSED_EMPTY);
+                    continue;
+                }
+                builder.append(REVERSED_NOT_EMPTY);
+            }
+            for (byte b : comparable(baseType(type), component)) {
+                builder.append((byte) (b ^ mask));
+                if (b == TERMINATOR) {
+                    builder.append((byte) (ESCAPE ^ mask));
+                }
+            }
+            builder.append((byte) (TERMINATOR ^ mask));
+            builder.append((byte) (TERMINATOR ^ mask));
+        }
+        return builder.get();
+    }
+
+    /**
+     * Returns the components contained in the specified order-preserving encoding.
+     *
+     * @param types    The types of the components.
+     * @param bytesRef A value generated with {@link #encode(List, List)}.
+     * @return The components contained in {@code bytesRef}.
+     */
+    public static List<ByteBuffer> decode(List<AbstractType<?>> types, BytesRef bytesRef) {
+        List<ByteBuffer> components = new ArrayList<>(types.size());
+        int position = bytesRef.offset;
+        int end = bytesRef.offset + bytesRef.length;
+        for (int i = 0; i < types.size() && position < end; i++) {
+            AbstractType<?> type = types.get(i);
+            byte mask = mask(type);
+            if (type instanceof ReversedType && bytesRef.bytes[position++] == REVERSED_EMPTY) {
+                components.add(ByteBufferUtil.EMPTY_BYTE_BUFFER);
+                continue;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (true) {
+                byte b = (byte) (bytesRef.bytes[position++] ^ mask);
+                if (b == TERMINATOR && (byte) (bytesRef.bytes[position++] ^ mask) == TERMINATOR) {
+                    break;
+                }
+                out.write(b);
+            }
+            components.add(ByteBuffer.wrap(original(baseType(type), out.toByteArray())));
+        }
+        return components;
+    }
+
+    /**
+     * Returns the smallest byte sequence that is greater than all the sequences starting with the specified one, or
+     * {@code null} if there is no such sequence.
+     *
+     * @param bytesRef A byte sequence.
+     * @return The smallest byte sequence that is greater than all the sequences starting with {@code bytesRef}.
+     */
+    public static BytesRef successor(BytesRef bytesRef) {
+        int length = bytesRef.length;
+        while (length > 0 && bytesRef.bytes[bytesRef.offset + length - 1] == (byte) 0xFF) {
+            length--;
+        }
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(bytesRef.bytes, bytesRef.offset, bytes, 0, length);
+        bytes[length - 1]++;
+        return new BytesRef(bytes);
+    }
+
+    private static AbstractType<?> baseType(AbstractType<?> type) {
+        return type instanceof ReversedType ? ((ReversedType<?>) type).baseType : type;
+    }
+
+    private static byte mask(AbstractType<?> type) {
+        return type instanceof ReversedType ? (byte) 0xFF : (byte) 0x00;
+    }
+
+    /**
+     * Returns the bytes of the specified not reversed type value transformed to be compared as unsigned bytes.
+     *
+     * @param type  A not reversed Cassandra type.
+     * @param value A value of {@code type}.
+     * @return The unsigned-comparable bytes of {@code value}.
+     */
+    private static byte[] comparable(AbstractType<?> type, ByteBuffer value) {
+        byte[] bytes = ByteBufferUtils.asArray(value);
+        if (bytes.length == 0) {
+            return bytes;
+        } else if (type instanceof Int32Type || type instanceof LongType || type instanceof TimestampType) {
+            bytes[0] ^= SIGN; // Two's complement numbers compare their first byte as signed
+            return bytes;
+        } else if (type instanceof TimeUUIDType) {
+            byte[] result = new byte[TIMESTAMP_LENGTH + UUID_LENGTH];
+            result[0] = (byte) (bytes[6] & 0x0F); // Time UUIDs are compared by timestamp and then as signed bytes
+            result[1] = bytes[7];
+            result[2] = bytes[4];
+            result[3] = bytes[5];
+            System.arraycopy(bytes, 0, result, 4, 4);
+            for (int i = 0; i < UUID_LENGTH; i++) {
+                result[TIMESTAMP_LENGTH + i] = (byte) (bytes[i] ^ SIGN);
+            }
+            return result;
+        } else {
+            return bytes;
+        }
+    }
+
+    /**
+     * Returns the original bytes of the specified transformed not reversed type value.
+     *
+     * @param type  A not reversed Cassandra type.
+     * @param bytes The unsigned-comparable bytes of a value of {@code type}.
+     * @return The original bytes of the value.
+     */
+    private static byte[] original(AbstractType<?> type, byte[] bytes) {
+        if (bytes.length == 0) {
+            return bytes;
+        } else if (type instanceof Int32Type || type instanceof LongType || type instanceof TimestampType) {
+            bytes[0] ^= SIGN;
+            return bytes;
+        } else if (type instanceof TimeUUIDType) {
+            byte[] result = new byte[UUID_LENGTH];
+            for (int i = 0; i < UUID_LENGTH; i++) {
+                result[i] = (byte) (bytes[TIMESTAMP_LENGTH + i] ^ SIGN);
+            }
+            return result;
+        } else {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util;
+
+import com.google.common.collect.Iterators;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Utilities for merging lists composed by several consecutive sorted runs, such as the concatenation of the partial
+ * results obtained from several token ranges.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SortedRuns {
+
+    /**
+     * Returns the maximal runs of consecutive elements of the specified list that are sorted according to the specified
+     * {@link Comparator}.
+     *
+     * @param elements   The elements to be split.
+     * @param comparator The {@link Comparator} to be used.
+     * @param <T>        The type of the elements.
+     * @return The sorted runs in {@code elements}, as views of it.
+     */
+    public static <T> List<List<T>> runs(List<T> elements, Comparator<? super T> comparator) {
+        List<List<T>> runs = new ArrayList<>();
+        int start = 0;
+        T previous = null;
+        int index = 0;
+        for (T element : elements) {
+            if (index > 0 && comparator.compare(previous, element) > 0) {
+                runs.add(elements.subList(start, index));
+                start = index;
+            }
+            previous = element;
+            index++;
+        }
+        if (index > start) {
+            runs.add(elements.subList(start, index));
+        }
+        return runs;
+    }
+
+    /**
+     * Returns the elements of the specified list sorted according to the specified {@link Comparator} and without
+     * duplicates, keeping only one of the elements comparing as equal. The list is expected to be composed by a few sorted
+     * runs, which are merged with a k-way merge.
+     *
+     * @param elements   The elements to be merged.
+     * @param comparator The {@link Comparator} to be used.
+     * @param <T>        The type of the elements.
+     * @return The sorted distinct elements.
+     */
+    public static <T> List<T> mergeDistinct(List<T> elements, Comparator<? super T> comparator) {
+        List<List<T>> runs = runs(elements, comparator);
+        List<Iterator<T>> iterators = new ArrayList<>(runs.size());
+        for (List<T> run : runs) {
+            iterators.add(run.iterator());
+        }
+        Iterator<T> merged = runs.size() == 1 ? iterators.get(0) : Iterators.mergeSorted(iterators, comparator);
+        List<T> result = new ArrayList<>(elements.size());
+        T last = null;
+        while (merged.hasNext()) {
+            T element = merged.next();
+            if (last == null || comparator.compare(last, element) != 0) {
+                result.add(element);
+                last = element;
+            }
+        }
+        return result;
+    }
+}
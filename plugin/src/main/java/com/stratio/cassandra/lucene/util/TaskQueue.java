@@ -15,55 +15,86 @@
  */
 package com.stratio.cassandra.lucene.util;
 
-import com.stratio.cassandra.lucene.contrib.NotifyingBlockingThreadPoolExecutor;
-
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A queue that executes each submitted task using one of possibly several pooled threads. Tasks can be submitted with
- * an identifier, ensuring that all tasks with same identifier will be executed orderly in the same thread. Each thread
- * has its own task queue.
+ * A queue that executes the submitted tasks using one of possibly several threads. Tasks are submitted with an
+ * identifier, ensuring that all tasks with same identifier will be executed orderly in the same thread. Each thread
+ * has its own task queue, which is drained in batches of consecutive tasks that are processed together by a {@link
+ * BatchProcessor}.
+ * <p/>
+ * Each thread queue is a bounded multi-producer single-consumer ring buffer with preallocated slots, so submissions
+ * don't take any lock nor allocate any object. Producers claim a slot with a compare-and-set over the queue tail, and
+ * each slot has a sequence number telling if it is ready to be written by a producer or to be read by the consumer.
+ * Synchronous tasks capture the tail of each queue and wait until their threads have processed the tasks before it,
+ * without stopping the producers nor the processing of the tasks submitted after them.
  *
+ * @param <T> The type of the tasks.
  * @author Andres de la Pena <adelapena@stratio.com>
  */
-public class TaskQueue {
+public class TaskQueue<T> {
+
+    /**
+     * Processor of the batches of tasks drained from a {@link TaskQueue}.
+     *
+     * @param <T> The type of the tasks.
+     */
+    public interface BatchProcessor<T> {
+
+        /**
+         * Processes the specified batch of tasks, in the same order they have been submitted.
+         *
+         * @param tasks       The tasks to be processed.
+         * @param queuedNanos The time in nanoseconds spent in the queue by the oldest task of the batch.
+         */
+        void process(List<T> tasks, long queuedNanos);
+    }
+
+    /** The max time in nanoseconds that an idle thread sleeps before checking its queue again. */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
 
-    private final NotifyingBlockingThreadPoolExecutor[] pools;
+    /** The number of times that a producer yields while waiting for a full queue before starting to sleep. */
+    private static final int MAX_YIELDS = 100;
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BatchProcessor<T> processor;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final List<Stripe> stripes;
 
     /**
      * Returns a new {@link TaskQueue}
      *
-     * @param numThreads The number of executor threads.
-     * @param queuesSize The max number of tasks in each thread queue before blocking.
+     * @param name            The name of the queue, used to name its threads.
+     * @param numThreads      The number of executor threads.
+     * @param queuesSize      The max number of tasks in each thread queue before blocking, rounded up to the next power
+     *                        of two.
+     * @param maxBatchSize    The max number of tasks to be processed in the same batch.
+     * @param maxLingerMillis The max time in milliseconds to wait for more tasks before processing an incomplete batch.
+     * @param processor       The processor of the batches of tasks.
      */
-    public TaskQueue(int numThreads, int queuesSize) {
-
-        pools = new NotifyingBlockingThreadPoolExecutor[numThreads];
+    public TaskQueue(String name,
+                     int numThreads,
+                     int queuesSize,
+                     int maxBatchSize,
+                     long maxLingerMillis,
+                     BatchProcessor<T> processor) {
+        this.processor = processor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+        stripes = new ArrayList<>(numThreads);
         for (int i = 0; i < numThreads; i++) {
-            pools[i] = new NotifyingBlockingThreadPoolExecutor(1,
-                                                               queuesSize,
-                                                               Long.MAX_VALUE,
-                                                               TimeUnit.DAYS,
-                                                               0,
-                                                               TimeUnit.NANOSECONDS,
-                                                               null);
-            pools[i].submit(new Runnable() {
-                @Override
-                public void run() {
-                    Log.debug("Task queue starts");
-                }
-            });
+            stripes.add(new Stripe(name + ":" + i, queuesSize));
         }
+        Log.debug("Task queue %s starts", name);
     }
 
     /**
-     * Submits a non value-returning task for asynchronous execution.
+     * Submits a task for asynchronous execution, blocking while the chosen thread queue is full.
      * <p/>
      * The specified identifier is used to choose the thread executor where the task will be queued. The selection and
      * load balancing is based in the {@link #hashCode()} of this identifier.
@@ -72,42 +103,29 @@ public class TaskQueue {
      *             asynchronous execution.
      * @param task A task to be queued for asynchronous execution.
      */
-    public Future<?> submitAsynchronous(Object id, Runnable task) {
-        lock.readLock().lock();
-        try {
-            int i = Math.abs(id.hashCode() % pools.length);
-            return pools[i].submit(task);
-        } catch (Exception e) {
-            Log.error(e, "Task queue submission failed");
-            throw new RuntimeException(e);
-        } finally {
-            lock.readLock().unlock();
-        }
+    public void submitAsynchronous(Object id, T task) {
+        int i = Math.abs(id.hashCode() % stripes.size());
+        stripes.get(i).put(task);
     }
 
-    private void await() throws ExecutionException, InterruptedException {
-        Future<?>[] futures = new Future<?>[pools.length];
-        for (int i = 0; i < pools.length; i++) {
-            Future<?> future = pools[i].submit(new Runnable() {
-                @Override
-                public void run() {
-                }
-            });
-            futures[i] = future;
+    private void await() throws InterruptedException {
+        long[] sequences = new long[stripes.size()];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = stripes.get(i).tail.get();
         }
-        for (Future<?> future : futures) {
-            future.get();
+        for (int i = 0; i < sequences.length; i++) {
+            stripes.get(i).await(sequences[i]);
         }
     }
 
     /**
-     * Submits a non value-returning task for synchronous execution. It waits for all synchronous tasks to be
-     * completed.
+     * Submits a non value-returning task for synchronous execution. It waits for all the previously submitted
+     * asynchronous tasks to be completed. The asynchronous tasks submitted meanwhile can be executed concurrently with
+     * the synchronous task.
      *
      * @param task A task to be executed synchronously.
      */
     public void submitSynchronous(Runnable task) {
-        lock.writeLock().lock();
         try {
             await();
             task.run();
@@ -117,9 +135,240 @@ public class TaskQueue {
         } catch (Exception e) {
             Log.error(e, "Task queue isolated submission failed");
             throw new RuntimeException(e);
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Returns the number of submitted tasks that haven't been processed yet in each thread queue.
+     *
+     * @return The number of pending tasks in each thread queue.
+     */
+    public long[] getDepths() {
+        long[] depths = new long[stripes.size()];
+        for (int i = 0; i < depths.length; i++) {
+            Stripe stripe = stripes.get(i);
+            depths[i] = Math.max(0, stripe.tail.get() - stripe.processed);
+        }
+        return depths;
+    }
+
+    /**
+     * Returns the total time in nanoseconds that submissions have been blocked waiting for a full thread queue.
+     *
+     * @return The total time in nanoseconds spent waiting for a full thread queue.
+     */
+    public long getBlockedNanos() {
+        long blockedNanos = 0;
+        for (Stripe stripe : stripes) {
+            blockedNanos += stripe.blockedNanos.get();
+        }
+        return blockedNanos;
+    }
+
+    /**
+     * Stops the threads of this queue after processing the already submitted tasks.
+     */
+    public void shutdown() {
+        for (Stripe stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    /**
+     * A thread with its own ring buffer queue of tasks.
+     */
+    private class Stripe implements Runnable {
+
+        private final int capacity;
+        private final int mask;
+        private final Object[] items; // The queued tasks
+        private final long[] times; // The submission times of the queued items
+        private final AtomicLongArray sequences; // The sequence of the next write to each slot, plus one if readable
+        private final AtomicLong tail = new AtomicLong(); // The sequence of the next item to be written
+        private final AtomicLong awaited = new AtomicLong(); // The highest sequence awaited by a synchronous task
+        private final AtomicLong blockedNanos = new AtomicLong(); // The time spent by producers waiting for a slot
+        private final Thread thread;
+        private long head; // The sequence of the next item to be read, only used by the stripe thread
+        private long time; // The submission time of the last read item
+        private volatile long processed = 0; // The number of processed items
+        private volatile boolean waiting = false;
+        private volatile boolean shutdown = false;
+
+        Stripe(String name, int queueSize) {
+            capacity = Integer.highestOneBit(Math.max(queueSize, 1) * 2 - 1);
+            mask = capacity - 1;
+            items = new Object[capacity];
+            times = new long[capacity];
+            sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Puts the specified item at the end of the queue, waiting while it is full.
+         *
+         * @param item A task.
+         */
+        void put(Object item) {
+            int yields = 0;
+            long blockedSince = 0;
+            while (true) {
+                long sequence = tail.get();
+                int index = (int) sequence & mask;
+                long slotSequence = sequences.get(index);
+                if (slotSequence == sequence) {
+                    if (tail.compareAndSet(sequence, sequence + 1)) {
+                        items[index] = item;
+                        times[index] = System.nanoTime();
+                        sequences.set(index, sequence + 1); // Publish the item
+                        if (waiting) {
+                            LockSupport.unpark(thread);
+                        }
+                        if (blockedSince != 0) {
+                            blockedNanos.addAndGet(System.nanoTime() - blockedSince);
+                        }
+                        return;
+                    }
+                } else if (slotSequence < sequence) { // The queue is full
+                    if (blockedSince == 0) {
+                        blockedSince = System.nanoTime();
+                    }
+                    if (yields++ < MAX_YIELDS) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(this, 1000);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the first item in the queue, or {@code null} if the queue is empty.
+         *
+         * @return The first item in the queue, if any.
+         */
+        private Object poll() {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return null;
+            }
+            Object item = items[index];
+            time = times[index];
+            items[index] = null;
+            sequences.lazySet(index, head + capacity); // Release the slot for the next lap
+            head++;
+            return item;
+        }
+
+        /**
+         * Returns the first item in the queue, waiting until the specified deadline if the queue is empty. Returns
+         * {@code null} if the deadline is reached or the stripe has been shut down without finding any item.
+         *
+         * @param timed    If there is a deadline, otherwise the wait finishes only on shutdown.
+         * @param deadline The {@link System#nanoTime()} deadline.
+         * @return The first item in the queue, if any.
+         */
+        private Object poll(boolean timed, long deadline) {
+            Object item = poll();
+            while (item == null && !shutdown && !(timed && isAwaited())) {
+                long remaining = timed ? deadline - System.nanoTime() : MAX_PARK_NANOS;
+                if (remaining <= 0) {
+                    return null;
+                }
+                waiting = true;
+                item = poll(); // Check again after setting the flag, so no wake up is lost
+                if (item == null) {
+                    LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+                    item = poll();
+                }
+                waiting = false;
+            }
+            return item == null ? poll() : item;
+        }
+
+        /**
+         * Waits until all the items before the specified sequence have been processed.
+         *
+         * @param sequence A sequence previously read from the queue tail.
+         * @throws InterruptedException If the wait is interrupted.
+         */
+        void await(long sequence) throws InterruptedException {
+            if (processed >= sequence) {
+                return;
+            }
+            long current = awaited.get();
+            while (current < sequence && !awaited.compareAndSet(current, sequence)) {
+                current = awaited.get();
+            }
+            LockSupport.unpark(thread); // Stop lingering
+            synchronized (this) {
+                while (processed < sequence) {
+                    wait();
+                }
+            }
+        }
+
+        /**
+         * Returns if there is any synchronous task waiting for the already read items to be processed.
+         *
+         * @return {@code true} if there is a synchronous task waiting, {@code false} otherwise.
+         */
+        private boolean isAwaited() {
+            return awaited.get() > processed;
+        }
+
+        /**
+         * Marks all the read items as processed, notifying the waiting synchronous tasks.
+         */
+        private void release() {
+            long previous = processed;
+            processed = head;
+            if (awaited.get() > previous) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        void shutdown() {
+            shutdown = true;
+            LockSupport.unpark(thread);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            List<T> batch = new ArrayList<>(maxBatchSize);
+            while (true) {
+                Object item = poll(false, 0);
+                if (item == null) {
+                    return; // Shut down
+                }
+                long start = time;
+                long deadline = System.nanoTime() + maxLingerNanos;
+                while (item != null) {
+                    batch.add((T) item);
+                    if (batch.size() >= maxBatchSize) {
+                        break;
+                    }
+                    item = maxLingerNanos > 0 && !isAwaited() ? poll(true, deadline) : poll();
+                }
+                try {
+                    if (!batch.isEmpty()) {
+                        processor.process(batch, System.nanoTime() - start);
+                    }
+                } catch (Exception e) {
+                    Log.error(e, "Task queue batch processing failed");
+                } finally {
+                    batch.clear();
+                    release();
+                }
+            }
+        }
+    }
 }
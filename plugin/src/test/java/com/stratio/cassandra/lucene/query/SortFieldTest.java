@@ -154,6 +154,43 @@ public class SortFieldTest {
         assertEquals(1, comparator.compare(columns2, columns1));
     }
 
+    @Test
+    public void testColumn() {
+
+        SortField sortField = new SortField("field", false);
+
+        Column<String> column = Column.fromComposed("field", "a", UTF8Type.instance, false);
+        Column<String> otherColumn = Column.fromComposed("other", "z", UTF8Type.instance, false);
+
+        assertEquals(column, sortField.column(new Columns().add(otherColumn).add(column)));
+        assertNull(sortField.column(new Columns().add(otherColumn)));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testColumnMultivalued() {
+        SortField sortField = new SortField("field", false);
+        Columns columns = new Columns().add(Column.fromComposed("field", "a", UTF8Type.instance, false))
+                                       .add(Column.fromComposed("field", "z", UTF8Type.instance, false));
+        sortField.column(columns);
+    }
+
+    @Test
+    public void testCompareColumns() {
+
+        SortField sortField = new SortField("field", false);
+        SortField reverseSortField = new SortField("field", true);
+
+        Column<String> lowerColumn = Column.fromComposed("field", "a", UTF8Type.instance, false);
+        Column<String> upperColumn = Column.fromComposed("field", "z", UTF8Type.instance, false);
+
+        assertEquals(-25, sortField.compare(lowerColumn, upperColumn));
+        assertEquals(25, reverseSortField.compare(lowerColumn, upperColumn));
+        assertEquals(0, sortField.compare(lowerColumn, lowerColumn));
+        assertEquals(-1, sortField.compare(lowerColumn, null));
+        assertEquals(1, reverseSortField.compare(null, upperColumn));
+        assertEquals(0, sortField.compare(null, null));
+    }
+
     @Test
     public void testEquals() {
         assertNotNull(new SortField("field", true));
@@ -0,0 +1,125 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class AdaptiveRefresherTest {
+
+    /** The max time to wait for a refresh that must happen before the max refresh interval. */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private RAMDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private IndexMetrics metrics;
+    private AdaptiveRefresher refresher;
+    private CountDownLatch refreshed;
+    private volatile long refreshTime;
+
+    @Before
+    public void before() throws IOException {
+        directory = new RAMDirectory();
+        writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()));
+        searcherManager = new SearcherManager(writer, true, null);
+        metrics = new IndexMetrics();
+        refreshed = new CountDownLatch(1);
+        searcherManager.addListener(new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+            }
+
+            @Override
+            public void afterRefresh(boolean didRefresh) {
+                if (didRefresh) {
+                    refreshTime = System.nanoTime();
+                    refreshed.countDown();
+                }
+            }
+        });
+    }
+
+    @After
+    public void after() throws IOException {
+        if (refresher != null) {
+            refresher.close();
+        }
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private void write() throws IOException {
+        Document document = new Document();
+        document.add(new StringField("field", "value", Field.Store.NO));
+        writer.addDocument(document);
+        refresher.onChange();
+    }
+
+    private int numDocs() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Test
+    public void testIdle() throws InterruptedException {
+        refresher = new AdaptiveRefresher(searcherManager, 0.01, 0.05, metrics, "refresher");
+        refresher.start();
+        refresher.onSearch();
+        assertFalse(refreshed.await(200, TimeUnit.MILLISECONDS));
+        refresher.close();
+        assertFalse(refresher.isAlive());
+        assertEquals(0, metrics.getRefreshes());
+    }
+
+    @Test
+    public void testMaxRefresh() throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        refresher = new AdaptiveRefresher(searcherManager, 0.01, 0.5, metrics, "refresher");
+        refresher.start();
+        write();
+        assertTrue(refreshed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(refreshTime - startTime >= TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1, numDocs());
+        refresher.close(); // Wait for the refresh to be recorded
+        assertEquals(1, metrics.getRefreshes());
+    }
+
+    @Test
+    public void testSearch() throws IOException, InterruptedException {
+        refresher = new AdaptiveRefresher(searcherManager, 0.01, 60, metrics, "refresher");
+        refresher.start();
+        write();
+        assertEquals(0, numDocs());
+        refresher.onSearch();
+        assertTrue(refreshed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, numDocs());
+        refresher.close(); // Wait for the refresh to be recorded
+        assertEquals(1, metrics.getRefreshes());
+    }
+}
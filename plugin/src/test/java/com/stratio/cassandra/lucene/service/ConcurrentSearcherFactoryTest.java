@@ -0,0 +1,117 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class ConcurrentSearcherFactoryTest {
+
+    private static Directory directory(int... segmentSizes) throws IOException {
+        Directory directory = new RAMDirectory();
+        IndexWriterConfig config = new IndexWriterConfig(new KeywordAnalyzer());
+        config.setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter writer = new IndexWriter(directory, config);
+        for (int segmentSize : segmentSizes) {
+            for (int i = 0; i < segmentSize; i++) {
+                Document document = new Document();
+                document.add(new StringField("field", "value", Field.Store.NO));
+                writer.addDocument(document);
+            }
+            writer.commit();
+        }
+        writer.close();
+        return directory;
+    }
+
+    @Test
+    public void testSlicesSingleSegment() throws IOException {
+        Directory directory = directory(10);
+        DirectoryReader reader = DirectoryReader.open(directory);
+        assertEquals(1, ConcurrentSearcherFactory.slices(reader.leaves(), 100).length);
+        reader.close();
+        directory.close();
+    }
+
+    @Test
+    public void testSlicesSmallSegments() throws IOException {
+        Directory directory = directory(10, 20, 30);
+        DirectoryReader reader = DirectoryReader.open(directory);
+        assertEquals(1, ConcurrentSearcherFactory.slices(reader.leaves(), 100).length);
+        reader.close();
+        directory.close();
+    }
+
+    @Test
+    public void testSlicesGrouped() throws IOException {
+        Directory directory = directory(100, 60, 50, 10, 5);
+        DirectoryReader reader = DirectoryReader.open(directory);
+        assertEquals(5, reader.leaves().size());
+        assertEquals(2, ConcurrentSearcherFactory.slices(reader.leaves(), 100).length);
+        assertEquals(5, ConcurrentSearcherFactory.slices(reader.leaves(), 1).length);
+        reader.close();
+        directory.close();
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Directory directory = directory(100, 60, 50, 10, 5);
+        DirectoryReader reader = DirectoryReader.open(directory);
+        IndexSearcher concurrentSearcher = new ConcurrentSearcherFactory(executor, 100).newSearcher(reader);
+        IndexSearcher sequentialSearcher = new ConcurrentSearcherFactory(null, 100).newSearcher(reader);
+        assertEquals(225, concurrentSearcher.search(new MatchAllDocsQuery(), 1000).totalHits);
+        assertEquals(225, sequentialSearcher.search(new MatchAllDocsQuery(), 1000).totalHits);
+        reader.close();
+        directory.close();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testQueryCache() throws IOException {
+        LRUQueryCache queryCache = new LRUQueryCache(10, 1024 * 1024);
+        ConcurrentSearcherFactory factory = new ConcurrentSearcherFactory(null,
+                                                                          100,
+                                                                          queryCache,
+                                                                          QueryCachingPolicy.ALWAYS_CACHE);
+        Directory directory = directory(10, 20);
+        DirectoryReader reader = DirectoryReader.open(directory);
+        Query query = new ConstantScoreQuery(new TermQuery(new Term("field", "value")));
+        assertEquals(30, factory.newSearcher(reader).search(query, 100).totalHits);
+        assertEquals(2, queryCache.getCacheSize());
+        assertEquals(2, queryCache.getMissCount());
+        assertEquals(0, queryCache.getHitCount());
+
+        // The per-segment matches are shared by the searchers of the same segments
+        assertEquals(30, factory.newSearcher(reader).search(query, 100).totalHits);
+        assertEquals(2, queryCache.getCacheSize());
+        assertEquals(2, queryCache.getMissCount());
+        assertEquals(2, queryCache.getHitCount());
+        reader.close();
+        directory.close();
+    }
+}
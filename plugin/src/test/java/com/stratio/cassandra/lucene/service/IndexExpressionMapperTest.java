@@ -0,0 +1,131 @@
+package com.stratio.cassandra.lucene.service;
+
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.analysis.PreBuiltAnalyzers;
+import com.stratio.cassandra.lucene.schema.mapping.IntegerMapper;
+import com.stratio.cassandra.lucene.schema.mapping.LongMapper;
+import com.stratio.cassandra.lucene.schema.mapping.StringMapper;
+import com.stratio.cassandra.lucene.schema.mapping.TextMapper;
+import org.apache.cassandra.cql3.Operator;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class IndexExpressionMapperTest {
+
+    private static IndexExpressionMapper mapper() {
+        Schema schema = mock(Schema.class);
+        when(schema.getAnalyzer()).thenReturn(PreBuiltAnalyzers.KEYWORD.get());
+        when(schema.getMapper("string")).thenReturn(new StringMapper("string", true, true, true));
+        when(schema.getMapper("insensitive")).thenReturn(new StringMapper("insensitive", true, true, false));
+        when(schema.getMapper("text")).thenReturn(new TextMapper("text", true, true, null));
+        when(schema.getMapper("integer")).thenReturn(new IntegerMapper("integer", true, true, null));
+        when(schema.getMapper("not_indexed")).thenReturn(new IntegerMapper("not_indexed", false, true, null));
+        when(schema.getMapper("long")).thenReturn(new LongMapper("long", true, true, null));
+        return new IndexExpressionMapper(null, schema);
+    }
+
+    @Test
+    public void testStringEq() {
+        Query query = mapper().query("string", UTF8Type.instance, Operator.EQ, UTF8Type.instance.decompose("Hello"));
+        assertTrue(query instanceof TermQuery);
+        assertEquals("Hello", ((TermQuery) query).getTerm().text());
+    }
+
+    @Test
+    public void testStringEmpty() {
+        assertNull(mapper().query("string", UTF8Type.instance, Operator.EQ, UTF8Type.instance.decompose("")));
+    }
+
+    @Test
+    public void testStringRange() {
+        Query query = mapper().query("string", UTF8Type.instance, Operator.GT, UTF8Type.instance.decompose("a"));
+        assertTrue(query instanceof TermRangeQuery);
+        TermRangeQuery rangeQuery = (TermRangeQuery) query;
+        assertEquals("a", rangeQuery.getLowerTerm().utf8ToString());
+        assertNull(rangeQuery.getUpperTerm());
+        assertFalse(rangeQuery.includesLower());
+    }
+
+    @Test
+    public void testCaseInsensitiveString() {
+        assertNull(mapper().query("insensitive", UTF8Type.instance, Operator.EQ, UTF8Type.instance.decompose("a")));
+    }
+
+    @Test
+    public void testText() {
+        assertNull(mapper().query("text", UTF8Type.instance, Operator.EQ, UTF8Type.instance.decompose("a")));
+    }
+
+    @Test
+    public void testIntegerEq() {
+        Query query = mapper().query("integer", Int32Type.instance, Operator.EQ, Int32Type.instance.decompose(3));
+        assertTrue(query instanceof NumericRangeQuery);
+        NumericRangeQuery<?> rangeQuery = (NumericRangeQuery<?>) query;
+        assertEquals(3, rangeQuery.getMin());
+        assertEquals(3, rangeQuery.getMax());
+    }
+
+    @Test
+    public void testIntegerRanges() {
+        IndexExpressionMapper mapper = mapper();
+        NumericRangeQuery<?> query;
+
+        query = (NumericRangeQuery<?>) mapper.query("integer", Int32Type.instance, Operator.GTE,
+                                                    Int32Type.instance.decompose(3));
+        assertEquals(3, query.getMin());
+        assertNull(query.getMax());
+        assertTrue(query.includesMin());
+
+        query = (NumericRangeQuery<?>) mapper.query("integer", Int32Type.instance, Operator.LT,
+                                                    Int32Type.instance.decompose(3));
+        assertNull(query.getMin());
+        assertEquals(3, query.getMax());
+        assertFalse(query.includesMax());
+
+        query = (NumericRangeQuery<?>) mapper.query("integer", Int32Type.instance, Operator.LTE,
+                                                    Int32Type.instance.decompose(3));
+        assertEquals(3, query.getMax());
+        assertTrue(query.includesMax());
+    }
+
+    @Test
+    public void testLong() {
+        Query query = mapper().query("long", LongType.instance, Operator.EQ, LongType.instance.decompose(3L));
+        assertTrue(query instanceof NumericRangeQuery);
+    }
+
+    @Test
+    public void testTypeMismatch() {
+        assertNull(mapper().query("integer", LongType.instance, Operator.EQ, LongType.instance.decompose(3L)));
+        assertNull(mapper().query("long", Int32Type.instance, Operator.EQ, Int32Type.instance.decompose(3)));
+    }
+
+    @Test
+    public void testNotIndexed() {
+        assertNull(mapper().query("not_indexed", Int32Type.instance, Operator.EQ, Int32Type.instance.decompose(3)));
+    }
+
+    @Test
+    public void testUnmapped() {
+        assertNull(mapper().query("unmapped", Int32Type.instance, Operator.EQ, Int32Type.instance.decompose(3)));
+    }
+
+    @Test
+    public void testUnsupportedOperator() {
+        assertNull(mapper().query("integer", Int32Type.instance, Operator.NEQ, Int32Type.instance.decompose(3)));
+        assertNull(mapper().query("integer", Int32Type.instance, Operator.CONTAINS, Int32Type.instance.decompose(3)));
+    }
+}
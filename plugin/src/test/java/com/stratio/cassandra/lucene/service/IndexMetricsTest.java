@@ -0,0 +1,103 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class IndexMetricsTest {
+
+    @Test
+    public void testEmpty() {
+        IndexMetrics metrics = new IndexMetrics();
+        assertEquals(0, metrics.getFetchPages());
+        assertArrayEquals(new long[]{0, 0, 0}, metrics.getFetchLatencyMicros());
+        assertEquals(0, metrics.getFetchParallelism(), 0);
+        assertEquals(0, metrics.getIndexingBatches());
+        assertArrayEquals(new long[]{0, 0, 0}, metrics.getIndexingBatchSize());
+        assertEquals(0, metrics.getSearches());
+        assertArrayEquals(new long[]{0, 0, 0}, metrics.getSearchLatencyMicros());
+        assertEquals(0, metrics.getSearchRejectionRatio(), 0);
+        assertEquals(0, metrics.getUpserts());
+        assertEquals(0, metrics.getDeletes());
+        assertArrayEquals(new long[0], metrics.getIndexingQueueDepths());
+        assertEquals(0, metrics.getIndexingBlockedMillis());
+        assertEquals(0, metrics.getRefreshes());
+        assertArrayEquals(new long[]{0, 0, 0}, metrics.getRefreshLatencyMicros());
+    }
+
+    @Test
+    public void testFetch() {
+        IndexMetrics metrics = new IndexMetrics();
+        metrics.recordFetch(TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.recordFetch(TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(2, metrics.getFetchPages());
+        assertEquals(3, metrics.getFetchParallelism(), 0.0001);
+        long[] latency = metrics.getFetchLatencyMicros();
+        assertEquals(3, latency.length);
+        for (long percentile : latency) {
+            assertEquals(10000, percentile, 10000 * 0.2);
+        }
+    }
+
+    @Test
+    public void testIndexingBatch() {
+        IndexMetrics metrics = new IndexMetrics();
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        metrics.recordIndexingBatch(10, millis, 2 * millis, 3 * millis);
+        metrics.recordIndexingBatch(10, millis, 2 * millis, 3 * millis);
+        assertEquals(2, metrics.getIndexingBatches());
+        assertEquals(10, metrics.getIndexingBatchSize()[0], 10 * 0.2);
+        assertEquals(1000, metrics.getIndexingQueueLatencyMicros()[0], 1000 * 0.2);
+        assertEquals(2000, metrics.getIndexingBuildLatencyMicros()[1], 2000 * 0.2);
+        assertEquals(3000, metrics.getIndexingApplyLatencyMicros()[2], 3000 * 0.2);
+    }
+
+    @Test
+    public void testSearch() {
+        IndexMetrics metrics = new IndexMetrics();
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        metrics.recordSearch(10 * millis, 4 * millis, 5 * millis, millis, 100, 50, 2);
+        metrics.recordSearch(10 * millis, 4 * millis, 5 * millis, millis, 100, 100, 2);
+        assertEquals(2, metrics.getSearches());
+        assertEquals(10000, metrics.getSearchLatencyMicros()[0], 10000 * 0.2);
+        assertEquals(4000, metrics.getSearchLuceneLatencyMicros()[1], 4000 * 0.2);
+        assertEquals(5000, metrics.getSearchCollectLatencyMicros()[2], 5000 * 0.2);
+        assertEquals(1000, metrics.getSearchSortLatencyMicros()[0], 1000 * 0.2);
+        assertEquals(100, metrics.getSearchDocs()[0], 100 * 0.2);
+        assertEquals(100, metrics.getSearchRows()[2], 100 * 0.2);
+        assertEquals(2, metrics.getSearchPages()[0]);
+        assertEquals(0.25, metrics.getSearchRejectionRatio(), 0.0001);
+    }
+
+    @Test
+    public void testWrites() {
+        IndexMetrics metrics = new IndexMetrics();
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        metrics.recordUpsert(millis);
+        metrics.recordUpsert(millis);
+        metrics.recordDelete();
+        metrics.recordReadBeforeWrite(2 * millis);
+        assertEquals(2, metrics.getUpserts());
+        assertEquals(1, metrics.getDeletes());
+        assertTrue(metrics.getUpsertsPerSecond() > metrics.getDeletesPerSecond());
+        assertEquals(1000, metrics.getUpsertLatencyMicros()[0], 1000 * 0.2);
+        assertEquals(2000, metrics.getReadBeforeWriteLatencyMicros()[2], 2000 * 0.2);
+    }
+
+    @Test
+    public void testRefresh() {
+        IndexMetrics metrics = new IndexMetrics();
+        metrics.recordRefresh(TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordRefresh(TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(2, metrics.getRefreshes());
+        assertTrue(metrics.getRefreshesPerSecond() > 0);
+        assertEquals(5000, metrics.getRefreshLatencyMicros()[1], 5000 * 0.2);
+    }
+}
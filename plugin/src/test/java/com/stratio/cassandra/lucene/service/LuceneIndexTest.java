@@ -15,13 +15,22 @@
  */
 package com.stratio.cassandra.lucene.service;
 
-import com.google.common.collect.Sets;
 import com.stratio.cassandra.lucene.IndexConfig;
+import com.stratio.cassandra.lucene.util.ByteBufferUtils;
+import org.apache.cassandra.db.BufferDecoratedKey;
+import org.apache.cassandra.dht.LongToken;
+import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
@@ -29,19 +38,30 @@ import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.util.BytesRef;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 import java.util.UUID;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Andres de la Pena <adelapena@stratio.com>
@@ -63,10 +83,18 @@ public class LuceneIndexTest {
                                             "cf",
                                             "idx",
                                             path,
+                                            IndexConfig.DEFAULT_DIRECTORY_TYPE,
+                                            IndexConfig.DEFAULT_MIN_REFRESH_SECONDS,
                                             REFRESH_SECONDS,
                                             IndexConfig.DEFAULT_RAM_BUFFER_MB,
                                             IndexConfig.DEFAULT_MAX_MERGE_MB,
                                             IndexConfig.DEFAULT_MAX_CACHED_MB,
+                                            IndexConfig.DEFAULT_SEARCH_CACHE_SIZE,
+                                            IndexConfig.DEFAULT_RESULT_CACHE_MB,
+                                            IndexConfig.DEFAULT_FILTER_CACHE_MB,
+                                            IndexConfig.DEFAULT_SEARCH_THREADS,
+                                            IndexConfig.DEFAULT_MIN_SLICE_DOCS,
+                                            IndexConfig.DEFAULT_SHARDS,
                                             new StandardAnalyzer());
         Sort sort = new Sort(new SortField("field", SortField.Type.STRING));
         index.init(sort);
@@ -87,28 +115,30 @@ public class LuceneIndexTest {
         index.commit();
         Thread.sleep(REFRESH_MILLISECONDS);
         assertEquals(2, index.getNumDocs());
+        assertEquals(2, index.getUpserts());
+        assertTrue(index.getFlushes() > 0);
 
         Query query = new WildcardQuery(new Term("field", "value*"));
-        Set<String> fields = Sets.newHashSet("field");
-        Map<Document, ScoreDoc> results;
+        RowMapper rowMapper = rowMapper();
+        List<SearchResult> results;
 
         // Search
-        results = index.search(query, null, null, 1, fields, true);
+        results = index.search(query, null, null, 1, true, rowMapper, null);
         assertEquals(1, results.size());
-        ScoreDoc last1 = results.values().iterator().next();
-        results = index.search(query, null, last1, 1, fields, true);
+        ScoreDoc last1 = results.get(0).getScoreDoc();
+        results = index.search(query, null, last1, 1, true, rowMapper, null);
         assertEquals(1, results.size());
 
-        results = index.search(query, null, null, 1, fields, false);
+        results = index.search(query, null, null, 1, false, rowMapper, null);
         assertEquals(1, results.size());
-        ScoreDoc last2 = results.values().iterator().next();
-        results = index.search(query, null, last2, 1, fields, false);
+        ScoreDoc last2 = results.get(0).getScoreDoc();
+        results = index.search(query, null, last2, 1, false, rowMapper, null);
         assertEquals(1, results.size());
 
-        results = index.search(query, sort, null, 1, fields, false);
+        results = index.search(query, sort, null, 1, false, rowMapper, null);
         assertEquals(1, results.size());
-        ScoreDoc last3 = results.values().iterator().next();
-        results = index.search(query, sort, last3, 1, fields, false);
+        ScoreDoc last3 = results.get(0).getScoreDoc();
+        results = index.search(query, sort, last3, 1, false, rowMapper, null);
         assertEquals(1, results.size());
 
         // Delete by term
@@ -146,4 +176,220 @@ public class LuceneIndexTest {
         // Cleanup
         folder.delete();
     }
+    @Test
+    public void testShards() throws IOException, InterruptedException {
+
+        Path path = Paths.get(folder.newFolder("directory" + UUID.randomUUID()).getPath());
+        LuceneIndex index = new LuceneIndex("ks",
+                                            "cf",
+                                            "idx_shards",
+                                            path,
+                                            IndexConfig.DEFAULT_DIRECTORY_TYPE,
+                                            IndexConfig.DEFAULT_MIN_REFRESH_SECONDS,
+                                            REFRESH_SECONDS,
+                                            IndexConfig.DEFAULT_RAM_BUFFER_MB,
+                                            IndexConfig.DEFAULT_MAX_MERGE_MB,
+                                            IndexConfig.DEFAULT_MAX_CACHED_MB,
+                                            IndexConfig.DEFAULT_SEARCH_CACHE_SIZE,
+                                            IndexConfig.DEFAULT_RESULT_CACHE_MB,
+                                            IndexConfig.DEFAULT_FILTER_CACHE_MB,
+                                            IndexConfig.DEFAULT_SEARCH_THREADS,
+                                            IndexConfig.DEFAULT_MIN_SLICE_DOCS,
+                                            3,
+                                            new StandardAnalyzer());
+        Sort sort = new Sort(new SortField("field", SortField.Type.STRING));
+        index.init(sort);
+        assertEquals(3, index.getNumShards());
+        assertEquals(0, index.getNumDocs());
+
+        for (int i = 0; i < 6; i++) {
+            String value = "value" + i;
+            Document document = new Document();
+            document.add(new StringField("field", value, Field.Store.YES));
+            document.add(new SortedDocValuesField("field", new BytesRef(value)));
+            index.upsert(i % 3, new Term("field", value), document);
+        }
+        index.commit();
+        Thread.sleep(WAIT_MILLISECONDS);
+        assertEquals(6, index.getNumDocs());
+
+        Query query = new WildcardQuery(new Term("field", "value*"));
+        RowMapper rowMapper = rowMapper();
+
+        // Paging across shards in index order
+        ScoreDoc last = null;
+        for (int i = 0; i < 6; i += 2) {
+            List<SearchResult> results = index.search(query, null, last, 2, false, rowMapper, null);
+            assertEquals(2, results.size());
+            assertEquals("value" + i, value(results.get(0)));
+            assertEquals("value" + (i + 1), value(results.get(1)));
+            last = results.get(1).getScoreDoc();
+        }
+        assertEquals(0, index.search(query, null, last, 2, false, rowMapper, null).size());
+
+        // Delete from a single shard
+        index.delete(1, new Term("field", "value1"));
+        index.delete(2, new Term("field", "value1"));
+        index.commit();
+        Thread.sleep(WAIT_MILLISECONDS);
+        assertEquals(5, index.getNumDocs());
+
+        // Delete from all shards
+        index.delete(new TermQuery(new Term("field", "value0")));
+        index.delete(new Term("field", "value2"));
+        index.commit();
+        Thread.sleep(WAIT_MILLISECONDS);
+        assertEquals(3, index.getNumDocs());
+
+        // Truncate
+        index.truncate();
+        index.commit();
+        Thread.sleep(WAIT_MILLISECONDS);
+        assertEquals(0, index.getNumDocs());
+
+        // Delete
+        index.delete();
+
+        // Cleanup
+        folder.delete();
+    }
+
+    @Test
+    public void testFormatUpgrade() throws IOException, InterruptedException {
+
+        // Create an index without format version
+        Path path = Paths.get(folder.newFolder("directory" + UUID.randomUUID()).getPath());
+        IndexWriterConfig indexWriterConfig = new IndexWriterConfig(new StandardAnalyzer());
+        IndexWriter indexWriter = new IndexWriter(FSDirectory.open(path), indexWriterConfig);
+        Document document = new Document();
+        document.add(new StringField("field", "value", Field.Store.NO));
+        document.add(new SortedDocValuesField("field", new BytesRef("value")));
+        indexWriter.addDocument(document);
+        indexWriter.close();
+
+        // Open outdated index
+        LuceneIndex index = index(path, IndexConfig.DEFAULT_DIRECTORY_TYPE);
+        assertTrue(index.needsRebuild());
+        assertEquals(0, index.getNumDocs());
+        index.upsert(new Term("field", "value"), document);
+        index.commit();
+        index.close();
+
+        // Open upgraded index
+        index = index(path, IndexConfig.DEFAULT_DIRECTORY_TYPE);
+        assertFalse(index.needsRebuild());
+        Thread.sleep(WAIT_MILLISECONDS);
+        assertEquals(1, index.getNumDocs());
+        index.delete();
+
+        // Cleanup
+        folder.delete();
+    }
+
+    @Test
+    public void testRAMDirectory() throws IOException, InterruptedException {
+
+        // Create a RAM resident index
+        Path path = Paths.get(folder.newFolder("directory" + UUID.randomUUID()).getPath());
+        LuceneIndex index = index(path, IndexConfig.RAM_DIRECTORY_TYPE);
+        for (int i = 0; i < 2; i++) {
+            String value = "value" + i;
+            Document document = new Document();
+            document.add(new StringField("field", value, Field.Store.NO));
+            document.add(new SortedDocValuesField("field", new BytesRef(value)));
+            index.upsert(new Term("field", value), document);
+            index.commit();
+        }
+        assertTrue(index.getDirectoryRAMBytes() > 0);
+        assertEquals(0, index.getDirectoryMappedBytes());
+
+        // The persisted index can't be written by others while it is loaded
+        FSDirectory fsDirectory = FSDirectory.open(path);
+        try {
+            new IndexWriter(fsDirectory, new IndexWriterConfig(new StandardAnalyzer()));
+            fail();
+        } catch (LockObtainFailedException e) {
+            // Expected
+        }
+        fsDirectory.close();
+        index.close();
+
+        // Only the last commit is persisted
+        DirectoryReader reader = DirectoryReader.open(FSDirectory.open(path));
+        assertEquals(2, reader.numDocs());
+        assertEquals(1, DirectoryReader.listCommits(reader.directory()).size());
+        reader.close();
+
+        // Reopen the persisted index
+        index = index(path, IndexConfig.RAM_DIRECTORY_TYPE);
+        Thread.sleep(WAIT_MILLISECONDS);
+        assertEquals(2, index.getNumDocs());
+        index.delete();
+
+        // Cleanup
+        folder.delete();
+    }
+
+    @Test
+    public void testMMapDirectory() throws IOException, InterruptedException {
+        Path path = Paths.get(folder.newFolder("directory" + UUID.randomUUID()).getPath());
+        LuceneIndex index = index(path, IndexConfig.MMAP_DIRECTORY_TYPE);
+        Document document = new Document();
+        document.add(new StringField("field", "value", Field.Store.NO));
+        document.add(new SortedDocValuesField("field", new BytesRef("value")));
+        index.upsert(new Term("field", "value"), document);
+        index.forceMerge(1, true);
+        Thread.sleep(WAIT_MILLISECONDS);
+        assertEquals(1, index.getNumDocs());
+        assertTrue(index.getDirectoryMappedBytes() > 0);
+        index.delete();
+
+        // Cleanup
+        folder.delete();
+    }
+
+    private static RowMapper rowMapper() throws IOException {
+        RowMapper rowMapper = mock(RowMapper.class);
+        when(rowMapper.keysReader(any(LeafReader.class))).thenAnswer(new Answer<RowMapper.KeysReader>() {
+            @Override
+            public RowMapper.KeysReader answer(InvocationOnMock invocation) throws IOException {
+                LeafReader reader = (LeafReader) invocation.getArguments()[0];
+                final SortedDocValues values = DocValues.getSorted(reader, "field");
+                return new RowMapper.KeysReader() {
+                    @Override
+                    public SearchResult searchResult(int docId, ScoreDoc scoreDoc) {
+                        ByteBuffer key = ByteBufferUtils.byteBuffer(values.get(docId));
+                        return new SearchResult(new BufferDecoratedKey(new LongToken(0L), key), null, scoreDoc);
+                    }
+                };
+            }
+        });
+        return rowMapper;
+    }
+
+    private static String value(SearchResult searchResult) throws CharacterCodingException {
+        return ByteBufferUtil.string(searchResult.getPartitionKey().getKey());
+    }
+
+    private static LuceneIndex index(Path path, String directoryType) throws IOException {
+        LuceneIndex index = new LuceneIndex("ks",
+                                            "cf",
+                                            "idx_format",
+                                            path,
+                                            directoryType,
+                                            IndexConfig.DEFAULT_MIN_REFRESH_SECONDS,
+                                            REFRESH_SECONDS,
+                                            IndexConfig.DEFAULT_RAM_BUFFER_MB,
+                                            IndexConfig.DEFAULT_MAX_MERGE_MB,
+                                            IndexConfig.DEFAULT_MAX_CACHED_MB,
+                                            IndexConfig.DEFAULT_SEARCH_CACHE_SIZE,
+                                            IndexConfig.DEFAULT_RESULT_CACHE_MB,
+                                            IndexConfig.DEFAULT_FILTER_CACHE_MB,
+                                            IndexConfig.DEFAULT_SEARCH_THREADS,
+                                            IndexConfig.DEFAULT_MIN_SLICE_DOCS,
+                                            IndexConfig.DEFAULT_SHARDS,
+                                            new StandardAnalyzer());
+        index.init(new Sort(new SortField("field", SortField.Type.STRING)));
+        return index;
+    }
 }
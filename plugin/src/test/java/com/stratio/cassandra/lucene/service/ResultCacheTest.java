@@ -0,0 +1,118 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.cassandra.db.BufferDecoratedKey;
+import org.apache.cassandra.dht.LongToken;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class ResultCacheTest {
+
+    private static BitSet shards() {
+        BitSet shards = new BitSet();
+        shards.set(0);
+        return shards;
+    }
+
+    private static ResultCache.Key key(String value, ScoreDoc after, long version) {
+        Query query = new TermQuery(new Term("field", value));
+        Sort sort = new Sort(new SortField("field", SortField.Type.STRING));
+        return new ResultCache.Key(query, sort, after, 10, false, shards(), new long[]{version});
+    }
+
+    private static List<SearchResult> results(int count) {
+        List<SearchResult> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BufferDecoratedKey partitionKey = new BufferDecoratedKey(new LongToken((long) i), ByteBufferUtil.bytes(i));
+            results.add(new SearchResult(partitionKey, null, new ScoreDoc(i, Float.NaN)));
+        }
+        return results;
+    }
+
+    @Test
+    public void testHit() {
+        ResultCache cache = new ResultCache(1);
+        List<SearchResult> results = results(3);
+        List<SearchResult> cached = cache.put(key("value", null, 1), results);
+        assertEquals(results, cached);
+        assertSame(cached, cache.get(key("value", null, 1)));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnmodifiable() {
+        ResultCache cache = new ResultCache(1);
+        cache.put(key("value", null, 1), results(3)).clear();
+    }
+
+    @Test
+    public void testMiss() {
+        ResultCache cache = new ResultCache(1);
+        cache.put(key("value", null, 1), results(3));
+        assertNull(cache.get(key("other", null, 1)));
+        assertNull(cache.get(key("value", null, 2)));
+        assertNull(cache.get(key("value", new ScoreDoc(2, Float.NaN), 1)));
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testAfter() {
+        ResultCache cache = new ResultCache(1);
+        FieldDoc after = new FieldDoc(2, Float.NaN, new Object[]{new BytesRef("a")});
+        List<SearchResult> cached = cache.put(key("value", after, 1), results(3));
+        FieldDoc sameAfter = new FieldDoc(2, Float.NaN, new Object[]{new BytesRef("a")});
+        FieldDoc otherAfter = new FieldDoc(2, Float.NaN, new Object[]{new BytesRef("b")});
+        assertSame(cached, cache.get(key("value", sameAfter, 1)));
+        assertNull(cache.get(key("value", otherAfter, 1)));
+        assertNull(cache.get(key("value", new ScoreDoc(2, Float.NaN), 1)));
+    }
+
+    @Test
+    public void testEviction() {
+        ResultCache cache = new ResultCache(1);
+        int count = 1024 * 1024 / ResultCache.weight(results(100)) + 1;
+        for (int i = 0; i < count * 2; i++) {
+            cache.put(key("value" + i, null, 1), results(100));
+        }
+        assertTrue(cache.size() < count);
+        assertTrue(cache.getEvictions() > 0);
+    }
+
+    @Test
+    public void testDisabled() {
+        ResultCache cache = new ResultCache(0);
+        assertFalse(cache.isEnabled());
+        List<SearchResult> results = results(3);
+        assertEquals(results, cache.put(key("value", null, 1), results));
+        assertNull(cache.get(key("value", null, 1)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate() {
+        ResultCache cache = new ResultCache(1);
+        cache.put(key("value", null, 1), results(3));
+        cache.invalidate();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(key("value", null, 1)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class RowServiceTest {
+
+    @Test
+    public void testBinaryScore() {
+        ByteBuffer value = RowService.encodeScore(1.25f);
+        assertEquals(5, value.remaining());
+        assertTrue(RowService.isBinaryScore(value));
+        assertEquals(1.25f, RowService.decodeScore(value), 0);
+        assertEquals(0, value.position());
+    }
+
+    @Test
+    public void testBinaryScoreWithOffset() {
+        ByteBuffer value = ByteBuffer.allocate(7);
+        value.position(2);
+        value.slice().put(RowService.encodeScore(0.5f));
+        assertEquals(0.5f, RowService.decodeScore(value), 0);
+    }
+
+    @Test
+    public void testTextScore() {
+        assertFalse(RowService.isBinaryScore(UTF8Type.instance.decompose("1.25")));
+        assertFalse(RowService.isBinaryScore(UTF8Type.instance.decompose("0.123")));
+        assertEquals(1.0f, RowService.decodeScore(UTF8Type.instance.decompose("1.0")), 0);
+        assertEquals(1.25f, RowService.decodeScore(UTF8Type.instance.decompose("1.25")), 0);
+        assertEquals(0.123456f, RowService.decodeScore(UTF8Type.instance.decompose("0.123456")), 0);
+        assertEquals(1.0E-5f, RowService.decodeScore(UTF8Type.instance.decompose("1.0E-5")), 0);
+    }
+}
@@ -0,0 +1,149 @@
+package com.stratio.cassandra.lucene.service;
+
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.analysis.PreBuiltAnalyzers;
+import com.stratio.cassandra.lucene.schema.mapping.Mapper;
+import com.stratio.cassandra.lucene.schema.mapping.StringMapper;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.index.Term;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static com.stratio.cassandra.lucene.query.builder.SearchBuilders.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SearchCacheTest {
+
+    private static Schema schema() {
+        Mapper mapper = new StringMapper("field", true, true, true);
+        Schema schema = mock(Schema.class);
+        when(schema.getAnalyzer()).thenReturn(PreBuiltAnalyzers.STANDARD.get());
+        when(schema.getMapper("field")).thenReturn(mapper);
+        return schema;
+    }
+
+    @Test
+    public void testHit() {
+        SearchCache cache = new SearchCache(10);
+        Schema schema = schema();
+        UUID version = UUID.randomUUID();
+        String json = search().query(match("field", "value")).sort(sortField("field")).toJson();
+        CompiledSearch first = cache.get(json, version, schema);
+        CompiledSearch second = cache.get(json, version, schema);
+        assertSame(first, second);
+        assertNotNull(first.sort());
+        assertTrue(first.usesRelevance());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void testSchemaVersion() {
+        SearchCache cache = new SearchCache(10);
+        Schema schema = schema();
+        String json = search().filter(match("field", "value")).toJson();
+        CompiledSearch first = cache.get(json, UUID.randomUUID(), schema);
+        CompiledSearch second = cache.get(json, UUID.randomUUID(), schema);
+        assertNotSame(first, second);
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testNullSchemaVersion() {
+        SearchCache cache = new SearchCache(10);
+        Schema schema = schema();
+        String json = search().filter(match("field", "value")).toJson();
+        assertSame(cache.get(json, null, schema), cache.get(json, null, schema));
+    }
+
+    @Test
+    public void testEviction() {
+        SearchCache cache = new SearchCache(1);
+        Schema schema = schema();
+        UUID version = UUID.randomUUID();
+        cache.get(search().filter(match("field", "value1")).toJson(), version, schema);
+        cache.get(search().filter(match("field", "value2")).toJson(), version, schema);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testDisabled() {
+        SearchCache cache = new SearchCache(0);
+        Schema schema = schema();
+        UUID version = UUID.randomUUID();
+        String json = search().filter(match("field", "value")).toJson();
+        assertNotSame(cache.get(json, version, schema), cache.get(json, version, schema));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate() {
+        SearchCache cache = new SearchCache(10);
+        Schema schema = schema();
+        UUID version = UUID.randomUUID();
+        String json = search().filter(match("field", "value")).toJson();
+        CompiledSearch first = cache.get(json, version, schema);
+        cache.invalidate();
+        assertEquals(0, cache.size());
+        assertNotSame(first, cache.get(json, version, schema));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalid() {
+        SearchCache cache = new SearchCache(10);
+        Schema schema = mock(Schema.class);
+        cache.get(search().filter(match("unmapped", "value")).toJson(), UUID.randomUUID(), schema);
+    }
+
+    @Test
+    public void testInvalidNotCached() {
+        SearchCache cache = new SearchCache(10);
+        Schema schema = mock(Schema.class);
+        String json = search().filter(match("unmapped", "value")).toJson();
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get(json, null, schema);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testQueryWithoutConditions() {
+        CompiledSearch search = new SearchCache(10).get(search().toJson(), null, schema());
+        assertTrue(search.query(null) instanceof MatchAllDocsQuery);
+        Query range = new TermQuery(new Term("range", "value"));
+        assertEquals(1, ((BooleanQuery) search.query(range)).clauses().size());
+    }
+
+    @Test
+    public void testQueryWithConditions() {
+        CompiledSearch search = new SearchCache(10).get(search().query(match("field", "value"))
+                                                                .filter(match("field", "value"))
+                                                                .toJson(), null, schema());
+        Query query = search.query(null);
+        assertTrue(query instanceof BooleanQuery);
+        Query range = new TermQuery(new Term("range", "value"));
+        BooleanQuery rangedQuery = (BooleanQuery) search.query(range);
+        assertEquals(2, rangedQuery.clauses().size());
+        assertSame(query, rangedQuery.clauses().get(0).getQuery());
+        assertSame(range, rangedQuery.clauses().get(1).getQuery());
+    }
+}
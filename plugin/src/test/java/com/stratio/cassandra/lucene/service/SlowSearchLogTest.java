@@ -0,0 +1,57 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SlowSearchLogTest {
+
+    @Test
+    public void testIsSlow() {
+        SlowSearchLog log = new SlowSearchLog(10);
+        assertFalse(log.isSlow(TimeUnit.MILLISECONDS.toNanos(9)));
+        assertTrue(log.isSlow(TimeUnit.MILLISECONDS.toNanos(10)));
+        assertTrue(log.isSlow(TimeUnit.MILLISECONDS.toNanos(11)));
+    }
+
+    @Test
+    public void testDisabled() {
+        SlowSearchLog log = new SlowSearchLog(0);
+        assertFalse(log.isSlow(0));
+        assertFalse(log.isSlow(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRecord() {
+        SlowSearchLog log = new SlowSearchLog(10);
+        assertEquals(0, log.getCount());
+        assertTrue(log.getEntries().isEmpty());
+        log.record("a");
+        log.record("b");
+        assertEquals(2, log.getCount());
+        assertEquals(Arrays.asList("a", "b"), log.getEntries());
+    }
+
+    @Test
+    public void testRecordOverflow() {
+        SlowSearchLog log = new SlowSearchLog(10);
+        int numEntries = SlowSearchLog.CAPACITY + 5;
+        for (int i = 0; i < numEntries; i++) {
+            log.record(String.valueOf(i));
+        }
+        assertEquals(numEntries, log.getCount());
+        List<String> entries = log.getEntries();
+        assertEquals(SlowSearchLog.CAPACITY, entries.size());
+        assertEquals("5", entries.get(0));
+        assertEquals(String.valueOf(numEntries - 1), entries.get(entries.size() - 1));
+    }
+}
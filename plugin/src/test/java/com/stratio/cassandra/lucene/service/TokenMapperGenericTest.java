@@ -0,0 +1,118 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.cassandra.dht.BigIntegerToken;
+import org.apache.cassandra.dht.ByteOrderedPartitioner;
+import org.apache.cassandra.dht.BytesToken;
+import org.apache.cassandra.dht.RandomPartitioner;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class TokenMapperGenericTest {
+
+    private static final Random RANDOM = new Random(0);
+
+    private static void testOrder(TokenMapperGeneric mapper, List<Token> tokens) {
+        for (Token token1 : tokens) {
+            BytesRef bytesRef1 = mapper.bytesRef(token1);
+            assertEquals(token1, mapper.token(bytesRef1));
+            for (Token token2 : tokens) {
+                BytesRef bytesRef2 = mapper.bytesRef(token2);
+                assertEquals(Integer.signum(token1.compareTo(token2)), Integer.signum(bytesRef1.compareTo(bytesRef2)));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomOrder() {
+        TokenMapperGeneric mapper = new TokenMapperGeneric(new RandomPartitioner());
+        List<Token> tokens = new ArrayList<>();
+        tokens.add(new BigIntegerToken(BigInteger.ZERO));
+        tokens.add(new BigIntegerToken(BigInteger.ONE));
+        tokens.add(new BigIntegerToken(BigInteger.valueOf(255)));
+        tokens.add(new BigIntegerToken(BigInteger.valueOf(256)));
+        tokens.add(new BigIntegerToken(RandomPartitioner.MAXIMUM));
+        for (int i = 0; i < 100; i++) {
+            tokens.add(new BigIntegerToken(new BigInteger(127, RANDOM)));
+        }
+        testOrder(mapper, tokens);
+    }
+
+    @Test
+    public void testByteOrderedOrder() {
+        TokenMapperGeneric mapper = new TokenMapperGeneric(new ByteOrderedPartitioner());
+        List<Token> tokens = new ArrayList<>();
+        tokens.add(new BytesToken(new byte[]{0}));
+        tokens.add(new BytesToken(new byte[]{0, 0}));
+        tokens.add(new BytesToken(new byte[]{-1}));
+        for (int i = 0; i < 100; i++) {
+            byte[] bytes = new byte[1 + RANDOM.nextInt(4)];
+            RANDOM.nextBytes(bytes);
+            tokens.add(new BytesToken(bytes));
+        }
+        testOrder(mapper, tokens);
+    }
+
+    @Test
+    public void testQuery() {
+        RandomPartitioner partitioner = new RandomPartitioner();
+        TokenMapperGeneric mapper = new TokenMapperGeneric(partitioner);
+        Token minimum = partitioner.getMinimumToken();
+        Token lower = new BigIntegerToken(BigInteger.TEN);
+        Token upper = new BigIntegerToken(BigInteger.valueOf(20));
+
+        Query query = mapper.query(lower, upper, true, false);
+        assertTrue(query instanceof TermRangeQuery);
+        TermRangeQuery rangeQuery = (TermRangeQuery) query;
+        assertEquals(mapper.bytesRef(lower), rangeQuery.getLowerTerm());
+        assertEquals(mapper.bytesRef(upper), rangeQuery.getUpperTerm());
+        assertTrue(rangeQuery.includesLower());
+        assertTrue(!rangeQuery.includesUpper());
+
+        rangeQuery = (TermRangeQuery) mapper.query(lower, minimum, false, true);
+        assertEquals(mapper.bytesRef(lower), rangeQuery.getLowerTerm());
+        assertNull(rangeQuery.getUpperTerm());
+
+        assertNull(mapper.query(minimum, minimum, false, false));
+    }
+
+    @Test
+    public void testTokenQueryEquals() {
+        TokenMapperGeneric mapper = new TokenMapperGeneric(new RandomPartitioner());
+        Token lower = new BigIntegerToken(BigInteger.TEN);
+        Token upper = new BigIntegerToken(BigInteger.valueOf(20));
+        Token other = new BigIntegerToken(BigInteger.valueOf(30));
+        TokenQuery query = new TokenQuery(lower, upper, true, false, mapper);
+        assertEquals(query, new TokenQuery(lower, upper, true, false, mapper));
+        assertEquals(query.hashCode(), new TokenQuery(lower, upper, true, false, mapper).hashCode());
+        assertFalse(query.equals(new TokenQuery(lower, other, true, false, mapper)));
+        assertFalse(query.equals(new TokenQuery(lower, upper, true, true, mapper)));
+    }
+
+    @Test
+    public void testSortFields() {
+        TokenMapperGeneric mapper = new TokenMapperGeneric(new ByteOrderedPartitioner());
+        SortField[] sortFields = mapper.sortFields();
+        assertEquals(1, sortFields.length);
+        assertEquals(SortField.Type.STRING, sortFields[0].getType());
+        assertEquals(new BytesToken(ByteBufferUtil.bytes("a")),
+                     mapper.token(mapper.bytesRef(new BytesToken(ByteBufferUtil.bytes("a")))));
+    }
+}
@@ -0,0 +1,85 @@
+package com.stratio.cassandra.lucene.service;
+
+import org.apache.cassandra.dht.LongToken;
+import org.apache.cassandra.dht.Token;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class TokenMapperMurmurTest {
+
+    private static final TokenMapperMurmur mapper = new TokenMapperMurmur();
+
+    private static Token token(long value) {
+        return new LongToken(value);
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bitSet = new BitSet();
+        for (int index : indexes) {
+            bitSet.set(index);
+        }
+        return bitSet;
+    }
+
+    @Test
+    public void testShardSingle() {
+        assertEquals(0, mapper.shard(token(Long.MIN_VALUE), 1));
+        assertEquals(0, mapper.shard(token(0), 1));
+        assertEquals(0, mapper.shard(token(Long.MAX_VALUE), 1));
+    }
+
+    @Test
+    public void testShard() {
+        assertEquals(0, mapper.shard(token(Long.MIN_VALUE), 4));
+        assertEquals(0, mapper.shard(token(Long.MIN_VALUE / 2 - 1), 4));
+        assertEquals(1, mapper.shard(token(Long.MIN_VALUE / 2), 4));
+        assertEquals(1, mapper.shard(token(-1), 4));
+        assertEquals(2, mapper.shard(token(0), 4));
+        assertEquals(2, mapper.shard(token(Long.MAX_VALUE / 2), 4));
+        assertEquals(3, mapper.shard(token(Long.MAX_VALUE / 2 + 1), 4));
+        assertEquals(3, mapper.shard(token(Long.MAX_VALUE), 4));
+    }
+
+    @Test
+    public void testShardsFullRange() {
+        Token minimum = token(Long.MIN_VALUE);
+        assertEquals(bits(0, 1, 2, 3), mapper.shards(minimum, minimum, 4));
+    }
+
+    @Test
+    public void testShardsRange() {
+        assertEquals(bits(1, 2), mapper.shards(token(-10), token(10), 4));
+        assertEquals(bits(2), mapper.shards(token(10), token(20), 4));
+        assertEquals(bits(2, 3), mapper.shards(token(10), token(Long.MIN_VALUE), 4));
+    }
+
+    @Test
+    public void testShardsWrappingRange() {
+        assertEquals(bits(0, 3), mapper.shards(token(Long.MAX_VALUE - 10), token(Long.MIN_VALUE + 10), 4));
+    }
+
+    @Test
+    public void testQueryFullRange() {
+        Token minimum = token(Long.MIN_VALUE);
+        assertNull(mapper.query(minimum, minimum, true, false));
+        assertNull(mapper.query(minimum, minimum, false, false));
+    }
+
+    @Test
+    public void testQueryRange() {
+        NumericRangeQuery<?> query = (NumericRangeQuery<?>) mapper.query(token(Long.MIN_VALUE), token(10), false, true);
+        assertNull(query.getMin());
+        assertEquals(10L, query.getMax());
+        query = (NumericRangeQuery<?>) mapper.query(token(-10), token(Long.MIN_VALUE), true, false);
+        assertEquals(-10L, query.getMin());
+        assertNull(query.getMax());
+    }
+}
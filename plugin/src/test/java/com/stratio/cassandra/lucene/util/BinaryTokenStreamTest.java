@@ -0,0 +1,49 @@
+package com.stratio.cassandra.lucene.util;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class BinaryTokenStreamTest {
+
+    @Test
+    public void testIndexAndSearch() throws IOException {
+        RAMDirectory directory = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()));
+        for (int i = 0; i < 3; i++) {
+            BytesRef bytesRef = new BytesRef(new byte[]{0, (byte) 0xFF, (byte) i});
+            Document document = new Document();
+            document.add(new Field("field", new BinaryTokenStream(bytesRef), BinaryTokenStream.FIELD_TYPE));
+            document.add(new StoredField("field", bytesRef));
+            indexWriter.addDocument(document);
+        }
+        indexWriter.close();
+
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(directory));
+        BytesRef bytesRef = new BytesRef(new byte[]{0, (byte) 0xFF, 1});
+        TopDocs topDocs = searcher.search(new TermQuery(new Term("field", bytesRef)), 10);
+        assertEquals(1, topDocs.totalHits);
+        Document document = searcher.doc(topDocs.scoreDocs[0].doc);
+        assertEquals(bytesRef, document.getBinaryValue("field"));
+        searcher.getIndexReader().close();
+        directory.close();
+    }
+}
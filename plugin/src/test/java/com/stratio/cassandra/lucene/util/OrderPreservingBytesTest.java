@@ -0,0 +1,187 @@
+package com.stratio.cassandra.lucene.util;
+
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.BytesType;
+import org.apache.cassandra.db.marshal.DecimalType;
+import org.apache.cassandra.db.marshal.DoubleType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.ReversedType;
+import org.apache.cassandra.db.marshal.TimeUUIDType;
+import org.apache.cassandra.db.marshal.TimestampType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.cassandra.utils.UUIDGen;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class OrderPreservingBytesTest {
+
+    private static final Random RANDOM = new Random(0);
+
+    @Test
+    public void testIsSupported() {
+        assertTrue(OrderPreservingBytes.isSupported(UTF8Type.instance));
+        assertTrue(OrderPreservingBytes.isSupported(ReversedType.getInstance(LongType.instance)));
+        assertFalse(OrderPreservingBytes.isSupported(DoubleType.instance));
+        assertFalse(OrderPreservingBytes.isSupported(ReversedType.getInstance(DecimalType.instance)));
+        List<AbstractType<?>> types = new ArrayList<>();
+        types.add(Int32Type.instance);
+        types.add(DecimalType.instance);
+        assertFalse(OrderPreservingBytes.isSupported(types));
+    }
+
+    @Test
+    public void testUTF8() {
+        test(UTF8Type.instance, UTF8Type.instance.decompose(""));
+        test(UTF8Type.instance, UTF8Type.instance.decompose("a"), UTF8Type.instance.decompose("ab"));
+        test(UTF8Type.instance, UTF8Type.instance.decompose("b"), UTF8Type.instance.decompose("ñ"));
+    }
+
+    @Test
+    public void testBytes() {
+        test(BytesType.instance, ByteBuffer.wrap(new byte[]{0}), ByteBuffer.wrap(new byte[]{0, 0}));
+        test(BytesType.instance, ByteBuffer.wrap(new byte[]{-1}), ByteBuffer.wrap(new byte[]{0, -1}));
+        test(BytesType.instance, ByteBufferUtil.EMPTY_BYTE_BUFFER, ByteBuffer.wrap(new byte[]{1, 0, 0, 1}));
+    }
+
+    @Test
+    public void testInt32() {
+        test(Int32Type.instance, Int32Type.instance.decompose(0), Int32Type.instance.decompose(-1));
+        test(Int32Type.instance, Int32Type.instance.decompose(Integer.MIN_VALUE));
+        test(Int32Type.instance, Int32Type.instance.decompose(Integer.MAX_VALUE));
+        test(Int32Type.instance, Int32Type.instance.decompose(256), Int32Type.instance.decompose(-256));
+        test(Int32Type.instance, ByteBufferUtil.EMPTY_BYTE_BUFFER);
+    }
+
+    @Test
+    public void testLong() {
+        test(LongType.instance, LongType.instance.decompose(0L), LongType.instance.decompose(-1L));
+        test(LongType.instance, LongType.instance.decompose(Long.MIN_VALUE));
+        test(LongType.instance, LongType.instance.decompose(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testTimestamp() {
+        test(TimestampType.instance, TimestampType.instance.decompose(new Date(-1000L)));
+        test(TimestampType.instance, TimestampType.instance.decompose(new Date(0L)));
+        test(TimestampType.instance, TimestampType.instance.decompose(new Date()));
+    }
+
+    @Test
+    public void testTimeUUID() {
+        test(TimeUUIDType.instance, TimeUUIDType.instance.decompose(UUIDGen.getTimeUUID(0)));
+        test(TimeUUIDType.instance, TimeUUIDType.instance.decompose(UUIDGen.getTimeUUID(1)));
+        test(TimeUUIDType.instance, TimeUUIDType.instance.decompose(UUIDGen.getTimeUUID(Long.MAX_VALUE >> 4)));
+        test(TimeUUIDType.instance, TimeUUIDType.instance.decompose(UUIDGen.getTimeUUID()));
+    }
+
+    @Test
+    public void testReversed() {
+        AbstractType<?> type = ReversedType.getInstance(UTF8Type.instance);
+        test(type, UTF8Type.instance.decompose(""), UTF8Type.instance.decompose("a"));
+        test(type, UTF8Type.instance.decompose("ab"), UTF8Type.instance.decompose("b"));
+        type = ReversedType.getInstance(Int32Type.instance);
+        test(type, Int32Type.instance.decompose(-1), Int32Type.instance.decompose(1));
+    }
+
+    @Test
+    public void testComposite() {
+        List<AbstractType<?>> types = new ArrayList<>();
+        types.add(BytesType.instance);
+        types.add(ReversedType.getInstance(Int32Type.instance));
+        types.add(LongType.instance);
+        List<List<ByteBuffer>> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            List<ByteBuffer> components = new ArrayList<>();
+            components.add(ByteBuffer.wrap(new byte[]{(byte) RANDOM.nextInt(3), (byte) (RANDOM.nextInt(3) - 1)}));
+            components.add(Int32Type.instance.decompose(RANDOM.nextInt(5) - 2));
+            components.add(LongType.instance.decompose(RANDOM.nextLong()));
+            values.add(components.subList(0, 1 + RANDOM.nextInt(3)));
+        }
+        for (List<ByteBuffer> value1 : values) {
+            BytesRef bytesRef1 = OrderPreservingBytes.encode(types, value1);
+            assertEquals(value1, OrderPreservingBytes.decode(types, bytesRef1));
+            for (List<ByteBuffer> value2 : values) {
+                BytesRef bytesRef2 = OrderPreservingBytes.encode(types, value2);
+                assertEquals(signum(compare(types, value1, value2)), signum(bytesRef1.compareTo(bytesRef2)));
+            }
+        }
+    }
+
+    @Test
+    public void testSuccessor() {
+        assertEquals(new BytesRef(new byte[]{1, 3}), OrderPreservingBytes.successor(new BytesRef(new byte[]{1, 2})));
+        assertEquals(new BytesRef(new byte[]{2}), OrderPreservingBytes.successor(new BytesRef(new byte[]{1, -1, -1})));
+        assertNull(OrderPreservingBytes.successor(new BytesRef(new byte[]{-1, -1})));
+        assertNull(OrderPreservingBytes.successor(new BytesRef()));
+    }
+
+    private static void test(AbstractType<?> type, ByteBuffer... values) {
+        List<AbstractType<?>> types = Collections.<AbstractType<?>>singletonList(type);
+        List<ByteBuffer> all = new ArrayList<>(Arrays.asList(values));
+        for (int i = 0; i < 20; i++) {
+            all.add(random(type));
+        }
+        for (ByteBuffer value1 : all) {
+            BytesRef bytesRef1 = OrderPreservingBytes.encode(types, Collections.singletonList(value1));
+            assertEquals(Collections.singletonList(value1), OrderPreservingBytes.decode(types, bytesRef1));
+            for (ByteBuffer value2 : all) {
+                BytesRef bytesRef2 = OrderPreservingBytes.encode(types, Collections.singletonList(value2));
+                assertEquals(type + " " + ByteBufferUtil.bytesToHex(value1) + " " + ByteBufferUtil.bytesToHex(value2),
+                             signum(type.compare(value1, value2)),
+                             signum(bytesRef1.compareTo(bytesRef2)));
+            }
+        }
+    }
+
+    private static ByteBuffer random(AbstractType<?> type) {
+        AbstractType<?> baseType = type instanceof ReversedType ? ((ReversedType<?>) type).baseType : type;
+        if (baseType instanceof Int32Type) {
+            return Int32Type.instance.decompose(RANDOM.nextInt());
+        } else if (baseType instanceof LongType) {
+            return LongType.instance.decompose(RANDOM.nextLong());
+        } else if (baseType instanceof TimestampType) {
+            return TimestampType.instance.decompose(new Date(RANDOM.nextLong() >> 8));
+        } else if (baseType instanceof TimeUUIDType) {
+            return TimeUUIDType.instance.decompose(UUIDGen.getTimeUUID(RANDOM.nextLong() >>> 5));
+        } else if (baseType instanceof UTF8Type) {
+            return UTF8Type.instance.decompose(Integer.toString(RANDOM.nextInt(), 36));
+        } else {
+            byte[] bytes = new byte[RANDOM.nextInt(4)];
+            RANDOM.nextBytes(bytes);
+            return ByteBuffer.wrap(bytes);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(List<AbstractType<?>> types, List<ByteBuffer> value1, List<ByteBuffer> value2) {
+        for (int i = 0; i < Math.min(value1.size(), value2.size()); i++) {
+            int comparison = types.get(i).compare(value1.get(i), value2.get(i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(value1.size(), value2.size());
+    }
+
+    private static int signum(int value) {
+        return Integer.signum(value);
+    }
+}
@@ -0,0 +1,58 @@
+package com.stratio.cassandra.lucene.util;
+
+import com.google.common.collect.Ordering;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class SortedRunsTest {
+
+    private static final Ordering<Integer> ORDERING = Ordering.natural();
+
+    @Test
+    public void testRunsEmpty() {
+        List<Integer> elements = Collections.emptyList();
+        assertEquals(0, SortedRuns.runs(elements, ORDERING).size());
+    }
+
+    @Test
+    public void testRuns() {
+        List<Integer> elements = Arrays.asList(1, 3, 3, 7, 2, 4, 0, 9);
+        List<List<Integer>> runs = SortedRuns.runs(elements, ORDERING);
+        assertEquals(3, runs.size());
+        assertEquals(Arrays.asList(1, 3, 3, 7), runs.get(0));
+        assertEquals(Arrays.asList(2, 4), runs.get(1));
+        assertEquals(Arrays.asList(0, 9), runs.get(2));
+    }
+
+    @Test
+    public void testMergeDistinctEmpty() {
+        List<Integer> elements = Collections.emptyList();
+        assertEquals(elements, SortedRuns.mergeDistinct(elements, ORDERING));
+    }
+
+    @Test
+    public void testMergeDistinctSingleRun() {
+        List<Integer> elements = Arrays.asList(1, 2, 2, 5);
+        assertEquals(Arrays.asList(1, 2, 5), SortedRuns.mergeDistinct(elements, ORDERING));
+    }
+
+    @Test
+    public void testMergeDistinct() {
+        List<Integer> elements = Arrays.asList(1, 4, 8, 2, 4, 9, 0, 1, 8);
+        assertEquals(Arrays.asList(0, 1, 2, 4, 8, 9), SortedRuns.mergeDistinct(elements, ORDERING));
+    }
+
+    @Test
+    public void testMergeDistinctReversed() {
+        List<Integer> elements = Arrays.asList(5, 4, 3, 3, 2, 1);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), SortedRuns.mergeDistinct(elements, ORDERING));
+    }
+}
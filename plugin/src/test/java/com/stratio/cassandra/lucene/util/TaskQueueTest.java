@@ -0,0 +1,254 @@
+package com.stratio.cassandra.lucene.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+public class TaskQueueTest {
+
+    private static class Task {
+
+        private final int id;
+        private final int value;
+
+        Task(int id, int value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    private static class Processor implements TaskQueue.BatchProcessor<Task> {
+
+        private final Map<Integer, List<Integer>> values = new ConcurrentHashMap<>();
+        private final List<Integer> sizes = Collections.synchronizedList(new ArrayList<Integer>());
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void process(List<Task> tasks, long queuedNanos) {
+            sizes.add(tasks.size());
+            for (Task task : tasks) {
+                List<Integer> list = values.get(task.id);
+                if (list == null) {
+                    list = Collections.synchronizedList(new ArrayList<Integer>());
+                    values.put(task.id, list);
+                }
+                list.add(task.value);
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void testOrder() {
+        Processor processor = new Processor();
+        TaskQueue<Task> queue = new TaskQueue<>("test", 4, 10, 5, 0, processor);
+        for (int i = 0; i < 1000; i++) {
+            queue.submitAsynchronous(i % 7, new Task(i % 7, i));
+        }
+        final AtomicInteger processed = new AtomicInteger();
+        queue.submitSynchronous(new Runnable() {
+            @Override
+            public void run() {
+                processed.set(1);
+            }
+        });
+        assertEquals(1, processed.get());
+        assertEquals(1000, processor.count.get());
+        for (Map.Entry<Integer, List<Integer>> entry : processor.values.entrySet()) {
+            List<Integer> values = entry.getValue();
+            for (int i = 1; i < values.size(); i++) {
+                assertTrue(values.get(i - 1) < values.get(i));
+            }
+        }
+        for (int size : processor.sizes) {
+            assertTrue(size <= 5);
+        }
+        queue.shutdown();
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        final Processor processor = new Processor();
+        final TaskQueue<Task> queue = new TaskQueue<>("test", 3, 4, 7, 0, processor);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 16; p++) {
+            final int id = p;
+            Thread producer = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        queue.submitAsynchronous(id, new Task(id, i));
+                    }
+                }
+            };
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        queue.submitSynchronous(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertEquals(16000, processor.count.get());
+        for (List<Integer> values : processor.values.values()) {
+            assertEquals(1000, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        }
+        queue.shutdown();
+    }
+
+    @Test
+    public void testSynchronousDoesNotBlock() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch unblocked = new CountDownLatch(1);
+        final TaskQueue<Task> queue = new TaskQueue<>("test", 2, 10, 1, 0, new TaskQueue.BatchProcessor<Task>() {
+            @Override
+            public void process(List<Task> tasks, long queuedNanos) {
+                try {
+                    if (tasks.get(0).id == 0) {
+                        blocker.await();
+                    } else {
+                        unblocked.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        queue.submitAsynchronous(0, new Task(0, 0));
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread() {
+            @Override
+            public void run() {
+                queue.submitSynchronous(new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+            }
+        }.start();
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+
+        // Submissions and processing go on while the synchronous task waits
+        queue.submitAsynchronous(1, new Task(1, 0));
+        assertTrue(unblocked.await(1, TimeUnit.SECONDS));
+        assertEquals(1, done.getCount());
+
+        blocker.countDown();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        queue.shutdown();
+    }
+
+    @Test
+    public void testDepthsAndBlockedTime() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final TaskQueue<Task> queue = new TaskQueue<>("test", 1, 2, 1, 0, new TaskQueue.BatchProcessor<Task>() {
+            @Override
+            public void process(List<Task> tasks, long queuedNanos) {
+                try {
+                    started.countDown();
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        queue.submitAsynchronous(0, new Task(0, 0));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        queue.submitAsynchronous(0, new Task(0, 1));
+        queue.submitAsynchronous(0, new Task(0, 2));
+        assertArrayEquals(new long[]{3}, queue.getDepths());
+        assertEquals(0, queue.getBlockedNanos());
+
+        // Submit into the full queue
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                queue.submitAsynchronous(0, new Task(0, 3));
+            }
+        };
+        producer.start();
+        while (LockSupport.getBlocker(producer) == null) { // Wait until the producer parks on the full queue
+            assertTrue(producer.isAlive());
+            Thread.yield();
+        }
+        long blockedSince = System.nanoTime();
+        Thread.sleep(50);
+        long blockedFor = System.nanoTime() - blockedSince;
+        blocker.countDown();
+        producer.join();
+        assertTrue(queue.getBlockedNanos() >= blockedFor);
+
+        queue.submitSynchronous(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertArrayEquals(new long[]{0}, queue.getDepths());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testLinger() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Integer> sizes = Collections.synchronizedList(new ArrayList<Integer>());
+        TaskQueue<Task> queue = new TaskQueue<>("test", 1, 10, 3, 1000, new TaskQueue.BatchProcessor<Task>() {
+            @Override
+            public void process(List<Task> tasks, long queuedNanos) {
+                sizes.add(tasks.size());
+                latch.countDown();
+            }
+        });
+        queue.submitAsynchronous(0, new Task(0, 0));
+        queue.submitAsynchronous(0, new Task(0, 1));
+        queue.submitAsynchronous(0, new Task(0, 2));
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(3), sizes);
+        queue.shutdown();
+    }
+
+    @Test
+    public void testProcessorFailure() {
+        final AtomicInteger count = new AtomicInteger();
+        TaskQueue<Task> queue = new TaskQueue<>("test", 1, 10, 1, 0, new TaskQueue.BatchProcessor<Task>() {
+            @Override
+            public void process(List<Task> tasks, long queuedNanos) {
+                if (count.incrementAndGet() == 1) {
+                    throw new RuntimeException("Expected failure");
+                }
+            }
+        });
+        queue.submitAsynchronous(0, new Task(0, 0));
+        queue.submitAsynchronous(0, new Task(0, 1));
+        queue.submitSynchronous(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertEquals(2, count.get());
+        queue.shutdown();
+    }
+}